@@ -1,45 +1,106 @@
 package gr.unipi.opentriviaapi;
 
 //import libraries for http and api actions
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+//import libraries for asynchronous requests
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//import libraries for streaming the questions
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 //import external libraries for json handling and deserialization
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 public class Client {
 	
+	//the base url of the api endpoint, the query parameters are appended to it
+	private static final String DEFAULT_BASE_URI = "https://opentdb.com/api.php";
+	
+	//response codes of the api
+	public static final int RESPONSE_SUCCESS = 0;
+	public static final int RESPONSE_NO_RESULTS = 1;
+	public static final int RESPONSE_INVALID_PARAMETER = 2;
+	public static final int RESPONSE_TOKEN_NOT_FOUND = 3;
+	public static final int RESPONSE_TOKEN_EMPTY = 4;
+	public static final int RESPONSE_RATE_LIMIT = 5;
+	
+	//timeout for opening a new connection to the api
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+	
 	//the base url for getting the questions data
-	private String trivia_uri = "https://opentdb.com/api.php?";
+	private String trivia_uri = DEFAULT_BASE_URI + "?";
 	
 	private final HttpClient httpClient;
 	private final Gson gson;
 	
+	//optional session token, so the api does not return the same question twice
+	private SessionToken sessionToken;
+	
+	//how failed requests are repeated
+	private RetryPolicy retryPolicy = RetryPolicy.defaults();
+	
+	//null means the limiter shared by every client of the same host, see RateLimiter.forHost
+	private RateLimiter rateLimiter;
+	
 	//default constructor
 	public Client() {
-		this.httpClient = HttpClient.newHttpClient();
-		this.gson = new Gson();
+		this.httpClient = SharedTransport.HTTP_CLIENT;
+		this.gson = SharedTransport.GSON;
 		this.trivia_uri += "amount=10";
 	}
 	
 	//constructor for getting only amount of questions
 	
 	public Client(int amount) {
-		this.httpClient = HttpClient.newHttpClient();
-		this.gson = new Gson();
+		this.httpClient = SharedTransport.HTTP_CLIENT;
+		this.gson = SharedTransport.GSON;
 		this.trivia_uri += "amount=" + amount;
 	}
 	
 	//constructor for getting custom data
 	public Client(int amount, int category, String difficulty, String type) {
-		this.httpClient = HttpClient.newHttpClient();
-		this.gson = new Gson();
+		this.httpClient = SharedTransport.HTTP_CLIENT;
+		this.gson = SharedTransport.GSON;
 		ConstructTriviaUriWithParams(amount, category, difficulty, type);
 	}
 	
+	//constructor used by the builder, the url is already complete
+	private Client(Builder builder, String triviaUri) {
+		this.httpClient = builder.httpClient != null ? builder.httpClient : SharedTransport.HTTP_CLIENT;
+		this.gson = builder.gson != null ? builder.gson : SharedTransport.GSON;
+		this.trivia_uri = triviaUri;
+		this.sessionToken = builder.sessionToken;
+		this.retryPolicy = builder.retryPolicy;
+		this.rateLimiter = builder.rateLimiter;
+	}
+	
 	//helper method to construct the final custom url
 	private void ConstructTriviaUriWithParams(int amount, int category, String difficulty, String type) {
 		this.trivia_uri += "amount=" + amount;
@@ -48,22 +109,441 @@ public class Client {
 		this.trivia_uri += "&type=" + type;
 	}
 	
+	//the session token sent with every request, null if none
+	public SessionToken getSessionToken() {
+		return sessionToken;
+	}
+	
+	public void setSessionToken(SessionToken sessionToken) {
+		this.sessionToken = sessionToken;
+	}
+	
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+	
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+	
+	//entry point for the builder, the preferred way of creating clients
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	//the http client that every Client shares unless the builder is given another one
+	public static HttpClient sharedHttpClient() {
+		return SharedTransport.HTTP_CLIENT;
+	}
+	
+	//gson builder configured like the shared gson: html references in the questions are decoded while reading
+	//a gson given to the builder should start from this one, or the questions keep their &quot; and &#039;
+	public static GsonBuilder gsonBuilder() {
+		return new GsonBuilder().registerTypeAdapterFactory(new HtmlDecodingAdapterFactory());
+	}
+	
+	//the transport shared by all Client objects, created on first use
+	//one connection pool (connections are kept alive between requests by the jdk http client),
+	//one selector thread and one tls session cache for the whole process
+	//Gson instances are thread safe, so a single one is enough as well
+	private static class SharedTransport {
+		private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(CONNECT_TIMEOUT)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+		
+		private static final Gson GSON = gsonBuilder().create();
+	}
+	
+	//reads DataQuestion objects with the default adapter of gson and decodes their text once, right after
+	private static class HtmlDecodingAdapterFactory implements TypeAdapterFactory {
+		
+		@Override
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			if (type.getRawType() != DataQuestion.class) {
+				return null;
+			}
+			TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+			return new TypeAdapter<T>() {
+				
+				@Override
+				public void write(JsonWriter out, T value) throws IOException {
+					delegate.write(out, value);
+				}
+				
+				@Override
+				public T read(JsonReader in) throws IOException {
+					T value = delegate.read(in);
+					if (value != null) {
+						((DataQuestion) value).decodeHtml();
+					}
+					return value;
+				}
+			};
+		}
+	}
+	
+	//builder that keeps the per request parameters apart from the transport
+	//parameters left unset are not sent, so the api uses its own defaults for them
+	public static class Builder {
+		
+		private String baseUri = DEFAULT_BASE_URI;
+		private int amount = 10;
+		private int category = 0;
+		private String difficulty = "";
+		private String type = "";
+		private HttpClient httpClient;
+		private Gson gson;
+		private SessionToken sessionToken;
+		private RetryPolicy retryPolicy = RetryPolicy.defaults();
+		private RateLimiter rateLimiter;
+		
+		private Builder() {
+		}
+		
+		//number of questions to fetch
+		public Builder amount(int amount) {
+			this.amount = amount;
+			return this;
+		}
+		
+		//category code as expected by the api, 0 means any category
+		public Builder category(int category) {
+			this.category = category;
+			return this;
+		}
+		
+		//"easy", "medium" or "hard", null or empty means any difficulty
+		public Builder difficulty(String difficulty) {
+			this.difficulty = difficulty == null ? "" : difficulty;
+			return this;
+		}
+		
+		//"multiple" or "boolean", null or empty means any type
+		public Builder type(String type) {
+			this.type = type == null ? "" : type;
+			return this;
+		}
+		
+		//copy every query parameter (amount, category, difficulty, type) from the given query
+		public Builder query(QuestionQuery query) {
+			this.amount = query.getAmount();
+			this.category = query.getCategory();
+			this.difficulty = query.getDifficulty();
+			this.type = query.getType();
+			return this;
+		}
+		
+		//url of the api endpoint, e.g. a local server for testing
+		public Builder baseUri(String baseUri) {
+			this.baseUri = baseUri;
+			return this;
+		}
+		
+		//use a specific http client instead of the shared one
+		public Builder httpClient(HttpClient httpClient) {
+			this.httpClient = httpClient;
+			return this;
+		}
+		
+		//use a specific gson instance instead of the shared one, see gsonBuilder()
+		public Builder gson(Gson gson) {
+			this.gson = gson;
+			return this;
+		}
+		
+		//send a session token with every request, it may be shared with other clients
+		public Builder sessionToken(SessionToken sessionToken) {
+			this.sessionToken = sessionToken;
+			return this;
+		}
+		
+		//how failed requests are repeated, RetryPolicy.defaults() if not set
+		public Builder retryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+			return this;
+		}
+		
+		//use a specific rate limiter instead of the one shared by every client of the same host
+		public Builder rateLimiter(RateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+		
+		public Client build() {
+			StringBuilder uri = new StringBuilder(baseUri);
+			uri.append(baseUri.indexOf('?') < 0 ? '?' : '&');
+			uri.append("amount=").append(amount);
+			if (category != 0) {
+				uri.append("&category=").append(category);
+			}
+			if (!difficulty.isEmpty()) {
+				uri.append("&difficulty=").append(difficulty);
+			}
+			if (!type.isEmpty()) {
+				uri.append("&type=").append(type);
+			}
+			return new Client(this, uri.toString());
+		}
+	}
+	
 	
 	//method to get data from json and deserialize them in a type of DataResponse described below
-	public DataResponse fetchData() throws Exception {
+	//every request waits for the rate limiter, failed requests are repeated as the retry policy says
+	//a response code of 5 (rate limit) is retried after the rate limit window and, if it persists,
+	//reported as a RateLimitException; an unknown session token is replaced and an exhausted one reset
+	//any other response code is returned to the caller
+	public DataResponse fetchData() throws IOException, InterruptedException {
+		return fetchData(true);
+	}
+	
+	//same as fetchData, renewToken false returns the token response codes 3 and 4 to the caller
+	//instead of renewing the token, e.g. for QuestionHarvester, which stops once the token is exhausted
+	DataResponse fetchData(boolean renewToken) throws IOException, InterruptedException {
+		for (int attempt = 1; ; attempt++) {
+			rateLimiter().acquire();
+			
+			DataResponse response = null;
+			IOException failure = null;
+			try {
+				response = fetchOnce();
+			} catch (IOException e) {
+				failure = e;
+			}
+			
+			long delay = nextAttemptDelay(attempt, response, failure, renewToken);
+			if (delay < 0) {
+				return response;
+			}
+			renewToken(response);
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+	}
+	
+	//a single request, without rate limiting or retries, the response code is returned as is
+	DataResponse fetchOnce() throws IOException, InterruptedException {
 		HttpRequest req = HttpRequest.newBuilder()
-				.uri(URI.create(this.trivia_uri))
+				.uri(URI.create(requestUri(sessionToken == null ? null : sessionToken.get())))
 				.GET()
 				.build();
 		
 		HttpResponse<String> res = httpClient.send(req, HttpResponse.BodyHandlers.ofString());
+		
+		return parseResponse(res);
+	}
+	
+	//asynchronous version of fetchData, the calling thread never waits for the network
+	//the response is checked and deserialized on the http client's default executor
+	public CompletableFuture<DataResponse> fetchDataAsync() {
+		return fetchDataAsync(null);
+	}
+	
+	//same as above, but the response is checked and deserialized on the given executor
+	//(for example a virtual thread per task executor), null means the http client's default executor
+	//waiting for the rate limiter, for the session token and between retries never blocks a thread
+	public CompletableFuture<DataResponse> fetchDataAsync(Executor executor) {
+		return fetchDataAsync(executor, 1);
+	}
+	
+	private CompletableFuture<DataResponse> fetchDataAsync(Executor executor, int attempt) {
+		//the first session token is requested before the first attempt
+		if (sessionToken != null && sessionToken.peek() == null) {
+			return sessionToken.getAsync().thenCompose(t -> fetchDataAsync(executor, attempt));
+		}
+		
+		long wait = rateLimiter().reserve();
+		CompletableFuture<Void> turn = wait > 0
+				? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, asyncExecutor(executor)))
+				: CompletableFuture.completedFuture(null);
+		
+		return turn.thenCompose(v -> {
+			HttpRequest req = HttpRequest.newBuilder()
+					.uri(URI.create(requestUri(sessionToken == null ? null : sessionToken.peek())))
+					.GET()
+					.build();
+			
+			CompletableFuture<HttpResponse<String>> res = httpClient.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+			
+			if(executor == null) {
+				return res.thenApply(this::parseResponseAsync);
+			}
+			return res.thenApplyAsync(this::parseResponseAsync, executor);
+		}).handleAsync((response, error) -> afterAttemptAsync(executor, attempt, response, error), asyncExecutor(executor))
+				.thenCompose(next -> next);
+	}
+	
+	//asynchronous counterpart of the loop in fetchData
+	private CompletableFuture<DataResponse> afterAttemptAsync(Executor executor, int attempt, DataResponse response, Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause != null && !(cause instanceof IOException)) {
+			return CompletableFuture.failedFuture(cause);
+		}
+		
+		long delay;
+		try {
+			delay = nextAttemptDelay(attempt, response, (IOException) cause, true);
+		} catch (IOException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		if (delay < 0) {
+			return CompletableFuture.completedFuture(response);
+		}
+		if (delay == 0) {
+			return renewTokenAsync(response).thenCompose(v -> fetchDataAsync(executor, attempt + 1));
+		}
+		Executor next = CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, asyncExecutor(executor));
+		return CompletableFuture.runAsync(() -> { }, next).thenCompose(v -> fetchDataAsync(executor, attempt + 1));
+	}
 	
+	//decides what happens after an attempt that got a response or failed
+	//returns the delay in nanoseconds before the next attempt, or -1 if the response should be returned
+	//throws the failure if it should not be repeated, and a RateLimitException if the api kept answering with code 5
+	private long nextAttemptDelay(int attempt, DataResponse response, IOException failure, boolean renewToken) throws IOException {
+		boolean canRetry = attempt < retryPolicy.getMaxAttempts();
+		
+		if (failure != null) {
+			if (!canRetry || !retryPolicy.isRetryable(failure)) {
+				throw failure;
+			}
+			Duration retryAfter = failure instanceof HttpStatusException ? ((HttpStatusException) failure).getRetryAfter() : null;
+			return retryPolicy.delayNanos(attempt, retryAfter);
+		}
+		
+		switch (response.getResponseCode()) {
+			case RESPONSE_RATE_LIMIT:
+				if (!canRetry) {
+					throw new RateLimitException("Could not get data. The api is rate limiting the requests.");
+				}
+				return retryPolicy.rateLimitDelayNanos();
+			case RESPONSE_TOKEN_NOT_FOUND:
+			case RESPONSE_TOKEN_EMPTY:
+				//retried at once, after renewToken
+				return canRetry && renewToken && sessionToken != null ? 0 : -1;
+			default:
+				return -1;
+		}
+	}
+	
+	//renews the session token before retrying a response that rejected it
+	private void renewToken(DataResponse response) throws IOException, InterruptedException {
+		if (response == null || sessionToken == null) {
+			return;
+		}
+		switch (response.getResponseCode()) {
+			case RESPONSE_TOKEN_NOT_FOUND:
+				//the token expired, ask for a new one
+				sessionToken.request();
+				break;
+			case RESPONSE_TOKEN_EMPTY:
+				//every question for this query was already returned, start over
+				sessionToken.reset();
+				break;
+			default:
+				break;
+		}
+	}
+	
+	//same as renewToken, without blocking a thread
+	private CompletableFuture<?> renewTokenAsync(DataResponse response) {
+		if (response == null || sessionToken == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		switch (response.getResponseCode()) {
+			case RESPONSE_TOKEN_NOT_FOUND:
+				return sessionToken.requestAsync();
+			case RESPONSE_TOKEN_EMPTY:
+				return sessionToken.resetAsync();
+			default:
+				return CompletableFuture.completedFuture(null);
+		}
+	}
+	
+	//helper method to check the status code and deserialize the body of a response
+	private DataResponse parseResponse(HttpResponse<String> res) throws HttpStatusException {
 		if(res.statusCode() != 200) {
-			throw new Exception("Could not get data. Status error code: " + res.statusCode());
+			throw new HttpStatusException(res.statusCode(), retryAfter(res));
 		}
 		
 		return gson.fromJson(res.body(), DataResponse.class);
+	}
+	
+	//same as parseResponse, for the stages of a CompletableFuture
+	private DataResponse parseResponseAsync(HttpResponse<String> res) {
+		try {
+			return parseResponse(res);
+		} catch (HttpStatusException e) {
+			throw new CompletionException(e);
+		}
+	}
+	
+	//the Retry-After header of a response, in seconds or as an http date, null if missing or invalid
+	static Duration retryAfter(HttpResponse<?> res) {
+		String value = res.headers().firstValue("Retry-After").orElse(null);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+		} catch (NumberFormatException e) {
+			try {
+				ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+				Duration wait = Duration.between(ZonedDateTime.now(at.getZone()), at);
+				return wait.isNegative() ? Duration.ZERO : wait;
+			} catch (DateTimeParseException ignored) {
+				return null;
+			}
+		}
+	}
+	
+	//the url of the next request, with the session token if there is one
+	private String requestUri(String token) {
+		return token == null ? this.trivia_uri : this.trivia_uri + "&token=" + token;
+	}
+	
+	//the limiter of this client, or the one shared by every client of the same host
+	private RateLimiter rateLimiter() {
+		if (rateLimiter != null) {
+			return rateLimiter;
+		}
+		return RateLimiter.forHost(URI.create(this.trivia_uri).getHost());
+	}
+	
+	private static Executor asyncExecutor(Executor executor) {
+		return executor != null ? executor : ForkJoinPool.commonPool();
+	}
+	
+	//streaming version of fetchData, the questions are deserialized one by one while the body is downloaded
+	//the returned reader must be closed when done
+	public QuestionReader fetchReader() throws IOException, InterruptedException {
+		rateLimiter().acquire();
+		
+		HttpRequest req = HttpRequest.newBuilder()
+				.uri(URI.create(requestUri(sessionToken == null ? null : sessionToken.get())))
+				.GET()
+				.build();
 		
+		HttpResponse<InputStream> res = httpClient.send(req, HttpResponse.BodyHandlers.ofInputStream());
+		
+		if(res.statusCode() != 200) {
+			res.body().close();
+			throw new HttpStatusException(res.statusCode(), retryAfter(res));
+		}
+		
+		return new QuestionReader(gson, new InputStreamReader(res.body(), StandardCharsets.UTF_8));
+	}
+	
+	//same as fetchReader, but as a Stream, closing the stream closes the reader
+	public Stream<DataQuestion> fetchStream() throws IOException, InterruptedException {
+		QuestionReader reader = fetchReader();
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						reader.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
 	}
 	
 	//deserialization class for json data
@@ -74,6 +554,16 @@ public class Client {
 		
 		private DataQuestion[] results;
 		
+		//used by gson
+		public DataResponse() {
+		}
+		
+		//used by the library when the questions do not come straight from the api, e.g. from the cache
+		DataResponse(int responseCode, DataQuestion[] results) {
+			this.responseCode = responseCode;
+			this.results = results;
+		}
+		
 		public int getResponseCode() {
 			return responseCode;
 		}
@@ -103,6 +593,20 @@ public class Client {
         
         @SerializedName("incorrect_answers")
         private String[] incorrectAnswers;
+        
+        //used by gson
+        public DataQuestion() {
+        }
+        
+        //used by the library when the question does not come from the api, e.g. from the QuestionStore
+        DataQuestion(String category, String type, String difficulty, String question, String correctAnswer, String[] incorrectAnswers) {
+            this.category = category;
+            this.type = type;
+            this.difficulty = difficulty;
+            this.question = question;
+            this.correctAnswer = correctAnswer;
+            this.incorrectAnswers = incorrectAnswers;
+        }
 
         public String getCategory() {
             return category;
@@ -127,6 +631,18 @@ public class Client {
         public String[] getIncorrectAnswers() {
             return incorrectAnswers;
         } 		
+        
+        //replaces the html references the api sends (&quot;, &#039;, &eacute; ...) with the characters
+        void decodeHtml() {
+            category = HtmlEntities.decode(category);
+            question = HtmlEntities.decode(question);
+            correctAnswer = HtmlEntities.decode(correctAnswer);
+            if (incorrectAnswers != null) {
+                for (int i = 0; i < incorrectAnswers.length; i++) {
+                    incorrectAnswers[i] = HtmlEntities.decode(incorrectAnswers[i]);
+                }
+            }
+        }
 	
 	}
 	
@@ -6,6 +6,16 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -79,6 +89,38 @@ public class ClientTest {
         assertEquals(expected, url);
     }
 
+    /**
+     * Test that the builder only sends the parameters that were set.
+     */
+    @Test
+    public void testBuilderUrl() throws Exception {
+        Client client = Client.builder()
+                .amount(5)
+                .category(21)
+                .difficulty("medium")
+                .build();
+        Field uriField = Client.class.getDeclaredField("trivia_uri");
+        uriField.setAccessible(true);
+        String url = (String) uriField.get(client);
+        assertEquals("https://opentdb.com/api.php?amount=5&category=21&difficulty=medium", url);
+    }
+
+    /**
+     * Test that all clients share the same HttpClient and Gson instances.
+     */
+    @Test
+    public void testClientsShareTransport() throws Exception {
+        Client first = new Client();
+        Client second = Client.builder().amount(3).build();
+        Field httpClientField = Client.class.getDeclaredField("httpClient");
+        httpClientField.setAccessible(true);
+        Field gsonField = Client.class.getDeclaredField("gson");
+        gsonField.setAccessible(true);
+        assertSame(httpClientField.get(first), httpClientField.get(second));
+        assertSame(Client.sharedHttpClient(), httpClientField.get(first));
+        assertSame(gsonField.get(first), gsonField.get(second));
+    }
+
     /**
      * Test that fetchData() correctly parses a successful JSON response.
      */
@@ -157,6 +199,348 @@ public class ClientTest {
         assertTrue(ex.getMessage().contains("Status error code: 404"));
     }
 
+    /**
+     * Test that fetchDataAsync() completes with the parsed response on the given executor.
+     */
+    @Test
+    public void testFetchDataAsyncSuccess() throws Exception {
+        String jsonResponse = "{\"response_code\":0, \"results\": ["
+                + "{\"category\":\"Science: Computers\","
+                + "\"type\":\"boolean\","
+                + "\"difficulty\":\"easy\","
+                + "\"question\":\"Java is a programming language.\","
+                + "\"correct_answer\":\"True\","
+                + "\"incorrect_answers\":[\"False\"]}"
+                + "]}";
+
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] responseBytes = jsonResponse.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Client.DataResponse dataResponse = client.fetchDataAsync(executor).get(5, TimeUnit.SECONDS);
+            assertEquals(0, dataResponse.getResponseCode());
+            assertEquals(1, dataResponse.getResults().length);
+            assertEquals("True", dataResponse.getResults()[0].getCorrectAnswer());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that fetchDataAsync() completes exceptionally when the HTTP status is not 200.
+     */
+    @Test
+    public void testFetchDataAsyncHttpError() throws Exception {
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        client.setRetryPolicy(RetryPolicy.none());
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> client.fetchDataAsync().get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause().getMessage().contains("Status error code: 500"));
+    }
+
+    /**
+     * Test that fetchStream() yields every question of the response in order.
+     */
+    @Test
+    public void testFetchStream() throws Exception {
+        StringBuilder json = new StringBuilder("{\"response_code\":0, \"results\": [");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"category\":\"General Knowledge\",\"type\":\"boolean\",\"difficulty\":\"easy\",")
+                .append("\"question\":\"Question ").append(i).append("\",")
+                .append("\"correct_answer\":\"True\",\"incorrect_answers\":[\"False\"]}");
+        }
+        json.append("]}");
+        String jsonResponse = json.toString();
+
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] responseBytes = jsonResponse.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        List<String> questions;
+        try (Stream<Client.DataQuestion> stream = client.fetchStream()) {
+            questions = stream.map(Client.DataQuestion::getQuestion).collect(Collectors.toList());
+        }
+        assertEquals(20, questions.size());
+        assertEquals("Question 0", questions.get(0));
+        assertEquals("Question 19", questions.get(19));
+    }
+
+    /**
+     * Test that html references in the questions are decoded when the response is read.
+     */
+    @Test
+    public void testFetchDataDecodesHtml() throws Exception {
+        String jsonResponse = "{\"response_code\":0, \"results\": [{\"category\":\"Entertainment: Japanese Anime &amp; Manga\","
+                + "\"type\":\"multiple\",\"difficulty\":\"easy\",\"question\":\"Who sang &quot;Caf&eacute;&quot;?\","
+                + "\"correct_answer\":\"&#8220;Nobody&#x201D;\",\"incorrect_answers\":[\"Don&#039;t know\",\"&lt;b&gt;\",\"&rsquo;\"]}]}";
+
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] responseBytes = jsonResponse.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        Client.DataQuestion question = client.fetchData().getResults()[0];
+        assertEquals("Entertainment: Japanese Anime & Manga", question.getCategory());
+        assertEquals("Who sang \"Caf\u00e9\"?", question.getQuestion());
+        assertEquals("\u201cNobody\u201d", question.getCorrectAnswer());
+        assertArrayEquals(new String[] {"Don't know", "<b>", "\u2019"}, question.getIncorrectAnswers());
+
+        try (QuestionReader reader = client.fetchReader()) {
+            assertEquals("Who sang \"Caf\u00e9\"?", reader.next().getQuestion());
+        }
+    }
+
+    /**
+     * Test that the streaming reader exposes the response code and yields nothing for an empty result.
+     */
+    @Test
+    public void testFetchReaderNoResults() throws Exception {
+        String jsonResponse = "{\"response_code\":1, \"results\": []}";
+
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] responseBytes = jsonResponse.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        try (QuestionReader reader = client.fetchReader()) {
+            assertFalse(reader.hasNext());
+            assertEquals(1, reader.getResponseCode());
+        }
+    }
+
+    /**
+     * Test that the session token is sent with the request and reset when the api reports it exhausted.
+     */
+    @Test
+    public void testSessionTokenIsResetWhenExhausted() throws Exception {
+        List<String> queries = new ArrayList<>();
+        server.createContext("/api_token.php", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                String token = query.contains("command=reset") ? "reset-token" : "new-token";
+                byte[] responseBytes = ("{\"response_code\":0,\"token\":\"" + token + "\"}").getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.createContext("/api.php", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                queries.add(query);
+                String json = query.contains("token=new-token")
+                        ? "{\"response_code\":4, \"results\": []}"
+                        : "{\"response_code\":0, \"results\": []}";
+                byte[] responseBytes = json.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        SessionToken token = new SessionToken("http://localhost:" + port + "/api_token.php");
+        Client client = Client.builder()
+                .baseUri("http://localhost:" + port + "/api.php")
+                .amount(5)
+                .sessionToken(token)
+                .build();
+
+        Client.DataResponse dataResponse = client.fetchData();
+        assertEquals(Client.RESPONSE_SUCCESS, dataResponse.getResponseCode());
+        assertEquals("reset-token", token.peek());
+        assertEquals(2, queries.size());
+        assertEquals("amount=5&token=new-token", queries.get(0));
+        assertEquals("amount=5&token=reset-token", queries.get(1));
+    }
+
+    /**
+     * Test that the session token is sent with the request and reset when the api reports it exhausted,
+     * with fetchDataAsync() requesting and resetting the token asynchronously.
+     */
+    @Test
+    public void testSessionTokenIsResetWhenExhaustedAsync() throws Exception {
+        List<String> queries = new ArrayList<>();
+        server.createContext("/api_token.php", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                String token = query.contains("command=reset") ? "reset-token" : "new-token";
+                byte[] responseBytes = ("{\"response_code\":0,\"token\":\"" + token + "\"}").getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.createContext("/api.php", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                queries.add(query);
+                String json = query.contains("token=new-token")
+                        ? "{\"response_code\":4, \"results\": []}"
+                        : "{\"response_code\":0, \"results\": []}";
+                byte[] responseBytes = json.getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        SessionToken token = new SessionToken("http://localhost:" + port + "/api_token.php");
+        Client client = Client.builder()
+                .baseUri("http://localhost:" + port + "/api.php")
+                .amount(5)
+                .sessionToken(token)
+                .build();
+
+        Client.DataResponse dataResponse = client.fetchDataAsync().get(5, TimeUnit.SECONDS);
+        assertEquals(Client.RESPONSE_SUCCESS, dataResponse.getResponseCode());
+        assertEquals("reset-token", token.peek());
+        assertEquals(2, queries.size());
+        assertEquals("amount=5&token=new-token", queries.get(0));
+        assertEquals("amount=5&token=reset-token", queries.get(1));
+    }
+
+    /**
+     * Test that a temporary server error is retried after the Retry-After delay.
+     */
+    @Test
+    public void testFetchDataRetriesAfterServerError() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (requests.incrementAndGet() == 1) {
+                    exchange.getResponseHeaders().add("Retry-After", "0");
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                byte[] responseBytes = "{\"response_code\":0, \"results\": []}".getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        Client.DataResponse dataResponse = client.fetchData();
+        assertEquals(0, dataResponse.getResponseCode());
+        assertEquals(2, requests.get());
+    }
+
+    /**
+     * Test that a persistent rate limit response code is reported as a RateLimitException.
+     */
+    @Test
+    public void testFetchDataRateLimited() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                byte[] responseBytes = "{\"response_code\":5, \"results\": []}".getBytes();
+                exchange.sendResponseHeaders(200, responseBytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            }
+        });
+        server.start();
+
+        Client client = new Client();
+        client.setRetryPolicy(new RetryPolicy(3, Duration.ZERO, Duration.ZERO, 0, Duration.ofMillis(10)));
+        overrideClientUrl(client, "http://localhost:" + port + "/");
+
+        assertThrows(RateLimitException.class, client::fetchData);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> client.fetchDataAsync().get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof RateLimitException);
+        assertEquals(6, requests.get());
+    }
+
+    /**
+     * Test that the token bucket lets a burst through and then spaces the permits.
+     */
+    @Test
+    public void testRateLimiterBurst() {
+        RateLimiter limiter = new RateLimiter(2, Duration.ofSeconds(10));
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        long wait = limiter.reserve();
+        assertTrue(wait > Duration.ofSeconds(9).toNanos() && wait <= Duration.ofSeconds(10).toNanos());
+    }
+
     /**
      * Helper method that uses reflection to override the private 'trivia_uri' field of Client.
      *
@@ -0,0 +1,40 @@
+package gr.unipi.opentriviaapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class HtmlEntitiesTest {
+
+    /**
+     * Test that named and numeric references are decoded in one pass.
+     */
+    @Test
+    public void testDecode() {
+        assertEquals("Test \"hello\" & world 'example' <tag>",
+                HtmlEntities.decode("Test &quot;hello&quot; &amp; world &#039;example&#039; &lt;tag&gt;"));
+        assertEquals("Pokémon “Red” ’ Æ", HtmlEntities.decode("Pok&eacute;mon &#8220;Red&#x201D; &rsquo; &AElig;"));
+        assertEquals("¹ ² x³", HtmlEntities.decode("&sup1; &sup2; x&sup3;"));
+        assertEquals("😀", HtmlEntities.decode("&#x1F600;"));
+    }
+
+    /**
+     * Test that a reference is decoded only once, so an escaped reference stays a reference.
+     */
+    @Test
+    public void testDecodeOnce() {
+        assertEquals("&lt;", HtmlEntities.decode("&amp;lt;"));
+    }
+
+    /**
+     * Test that text without references is returned as is and unknown or malformed references are kept.
+     */
+    @Test
+    public void testUnchanged() {
+        String text = "Plain question?";
+        assertSame(text, HtmlEntities.decode(text));
+        assertNull(HtmlEntities.decode(null));
+        assertEquals("AT&T & co &unknown; &#; &#xZZ; &#0; &amp", HtmlEntities.decode("AT&T & co &unknown; &#; &#xZZ; &#0; &amp"));
+        assertEquals("&&", HtmlEntities.decode("&&amp;"));
+    }
+}
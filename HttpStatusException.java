@@ -0,0 +1,27 @@
+package gr.unipi.opentriviaapi;
+
+import java.time.Duration;
+
+//the api answered with an http status other than 200
+public class HttpStatusException extends TriviaApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int statusCode;
+	private final Duration retryAfter;
+
+	//retryAfter is the value of the Retry-After header, null if there was none
+	public HttpStatusException(int statusCode, Duration retryAfter) {
+		super("Could not get data. Status error code: " + statusCode);
+		this.statusCode = statusCode;
+		this.retryAfter = retryAfter;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
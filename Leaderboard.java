@@ -0,0 +1,338 @@
+package gr.unipi.quizgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//imports the api developed as library jar
+import gr.unipi.opentriviaapi.QuestionQuery;
+
+// High scores per game options (category, difficulty, type, number of questions and time limit).
+// Every options has a board with its best score in an AtomicLong raised with compare-and-set, its
+// number of games in a LongAdder and its top scores in a concurrent skip list trimmed to its capacity.
+// Recording a game swaps the best score without a lock, so the best score it reports as beaten is
+// the one just before it; only trimming the top scores locks the board. Reading the best score, the
+// games or the top scores never locks. The whole leaderboard is written to a file now and then,
+// only if something changed, to a temporary file that is then renamed over the old one, so a crash
+// leaves either the previous snapshot or the new one and never half of one.
+public class Leaderboard implements Closeable {
+
+    // Snapshot headers: "QLB1" without time limits, "QLB2" with the time limit of every options.
+    private static final int MAGIC_V1 = 0x514c4231;
+    private static final int MAGIC = 0x514c4232;
+
+    // Scores kept for every options by openDefault.
+    public static final int DEFAULT_CAPACITY = 10;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<Key, Board> boards = new ConcurrentHashMap<>();
+    // Number of changes, and the number already written to the file.
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long savedChanges;
+    // Orders scores within a board that are equal, the earlier one first.
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledExecutorService snapshots;
+
+    // Leaderboard that keeps the best scores of every options in memory only.
+    public Leaderboard(int capacity) {
+        this(null, capacity);
+    }
+
+    private Leaderboard(Path file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    // Leaderboard backed by the file, loaded from it if it exists.
+    public static Leaderboard open(Path file, int capacity) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(file, capacity);
+        leaderboard.load();
+        return leaderboard;
+    }
+
+    // Leaderboard of the file named by the "quizgame.scores" system property, by default
+    // .quizgame/scores.dat in the user's home, with a snapshot every 30 seconds.
+    // A file that cannot be read is reported and the scores are kept in memory only.
+    public static Leaderboard openDefault() {
+        String name = System.getProperty("quizgame.scores");
+        Path file = name != null ? Paths.get(name) : Paths.get(System.getProperty("user.home"), ".quizgame", "scores.dat");
+        try {
+            Leaderboard leaderboard = open(file, DEFAULT_CAPACITY);
+            leaderboard.startSnapshots(Duration.ofSeconds(30));
+            return leaderboard;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new Leaderboard(DEFAULT_CAPACITY);
+        }
+    }
+
+    // Records the score of a finished game without a time limit, see record(QuestionQuery, int, String, int).
+    public Integer record(QuestionQuery options, String player, int score) {
+        return record(options, 0, player, score);
+    }
+
+    // Records the score of a finished game and returns the best score of the options before it,
+    // null if this was the first game with these options. Timed games (timeLimitSeconds > 0 per
+    // question) score differently, so every time limit has a leaderboard of its own.
+    public Integer record(QuestionQuery options, int timeLimitSeconds, String player, int score) {
+        Board board = boards.computeIfAbsent(new Key(options, timeLimitSeconds), key -> new Board());
+        Integer previousBest = board.add(new Score(player, score, System.currentTimeMillis(), sequence.incrementAndGet()), capacity);
+        changes.incrementAndGet();
+        return previousBest;
+    }
+
+    // Best score of the options without a time limit, null if no game was played with them.
+    public Integer getBest(QuestionQuery options) {
+        return getBest(options, 0);
+    }
+
+    public Integer getBest(QuestionQuery options, int timeLimitSeconds) {
+        Board board = boards.get(new Key(options, timeLimitSeconds));
+        if (board == null) {
+            return null;
+        }
+        long best = board.best.get();
+        return best == Long.MIN_VALUE ? null : (int) best;
+    }
+
+    // Number of games recorded with the options without a time limit.
+    public long getGames(QuestionQuery options) {
+        return getGames(options, 0);
+    }
+
+    public long getGames(QuestionQuery options, int timeLimitSeconds) {
+        Board board = boards.get(new Key(options, timeLimitSeconds));
+        return board == null ? 0 : board.games.sum();
+    }
+
+    // Up to k best scores of the options without a time limit, best first.
+    public List<Score> top(QuestionQuery options, int k) {
+        return top(options, 0, k);
+    }
+
+    public List<Score> top(QuestionQuery options, int timeLimitSeconds, int k) {
+        Board board = boards.get(new Key(options, timeLimitSeconds));
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        // A score being added may show up before the one it pushes out is removed.
+        int limit = Math.min(k, capacity);
+        List<Score> top = new ArrayList<>(limit);
+        for (Score score : board.scores) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(score);
+        }
+        return top;
+    }
+
+    // Writes a snapshot every interval, on a daemon thread, if anything changed.
+    public synchronized void startSnapshots(Duration interval) {
+        if (file == null || snapshots != null) {
+            return;
+        }
+        snapshots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the snapshots and writes a last one.
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (snapshots != null) {
+                snapshots.shutdownNow();
+                snapshots = null;
+            }
+        }
+        snapshot();
+    }
+
+    // Writes everything to the file if something changed since the last snapshot.
+    // Games recorded while the snapshot is written are in the next one.
+    public synchronized void snapshot() throws IOException {
+        long current = changes.get();
+        if (file == null || current == savedChanges) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(boards.size());
+                for (Map.Entry<Key, Board> entry : boards.entrySet()) {
+                    QuestionQuery options = entry.getKey().options;
+                    Board board = entry.getValue();
+                    List<Score> scores = new ArrayList<>(capacity);
+                    for (Score score : board.scores) {
+                        if (scores.size() == capacity) {
+                            break;
+                        }
+                        scores.add(score);
+                    }
+                    out.writeInt(options.getAmount());
+                    out.writeInt(options.getCategory());
+                    out.writeUTF(options.getDifficulty());
+                    out.writeUTF(options.getType());
+                    out.writeInt(entry.getKey().timeLimitSeconds);
+                    out.writeLong(board.games.sum());
+                    out.writeLong(board.best.get());
+                    out.writeInt(scores.size());
+                    for (Score score : scores) {
+                        out.writeUTF(score.player);
+                        out.writeInt(score.score);
+                        out.writeLong(score.time);
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        savedChanges = current;
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException("Not a leaderboard: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                QuestionQuery options = new QuestionQuery(in.readInt(), in.readInt(), in.readUTF(), in.readUTF());
+                int timeLimitSeconds = magic == MAGIC ? in.readInt() : 0;
+                Board board = new Board();
+                board.games.add(in.readLong());
+                board.best.accumulateAndGet(in.readLong(), Math::max);
+                int scores = in.readInt();
+                for (int j = 0; j < scores; j++) {
+                    board.addScore(new Score(in.readUTF(), in.readInt(), in.readLong(), sequence.incrementAndGet()), capacity);
+                }
+                boards.put(new Key(options, timeLimitSeconds), board);
+            }
+        } catch (NoSuchFileException e) {
+            // No games were played yet.
+        }
+    }
+
+    // One recorded game.
+    public static class Score {
+        // Best score first, then the earlier game.
+        private static final Comparator<Score> ORDER = Comparator.comparingInt((Score s) -> -s.score)
+                .thenComparingLong(s -> s.sequence);
+
+        private final String player;
+        private final int score;
+        private final long time;
+        private final long sequence;
+
+        private Score(String player, int score, long time, long sequence) {
+            this.player = player;
+            this.score = score;
+            this.time = time;
+            this.sequence = sequence;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        // When the game ended, in milliseconds since the epoch.
+        public long getTime() {
+            return time;
+        }
+    }
+
+    // Options and time limit of a board.
+    private static final class Key {
+        private final QuestionQuery options;
+        private final int timeLimitSeconds;
+
+        private Key(QuestionQuery options, int timeLimitSeconds) {
+            this.options = options;
+            this.timeLimitSeconds = timeLimitSeconds;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return options.equals(other.options) && timeLimitSeconds == other.timeLimitSeconds;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * options.hashCode() + timeLimitSeconds;
+        }
+    }
+
+    // Scores of one options.
+    private static class Board {
+        // Long.MIN_VALUE until the first game.
+        private final AtomicLong best = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder games = new LongAdder();
+        private final ConcurrentSkipListSet<Score> scores = new ConcurrentSkipListSet<>(Score.ORDER);
+        // Number of scores, guarded by the lock of the board like every change of the scores.
+        private int size;
+
+        // Records the game and returns the best score before it, null if it is the first game.
+        private Integer add(Score score, int capacity) {
+            long previousBest = best.getAndAccumulate(score.score, Math::max);
+            games.increment();
+            addScore(score, capacity);
+            return previousBest == Long.MIN_VALUE ? null : (int) previousBest;
+        }
+
+        // Adds the score if it is among the best, dropping the lowest one beyond the capacity.
+        private synchronized void addScore(Score score, int capacity) {
+            if (size == capacity && (capacity == 0 || Score.ORDER.compare(score, scores.last()) > 0)) {
+                return;
+            }
+            scores.add(score);
+            if (++size > capacity) {
+                scores.pollLast();
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package gr.unipi.quizgame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gr.unipi.opentriviaapi.QuestionQuery;
+
+public class LeaderboardTest {
+
+    private static final QuestionQuery EASY = new QuestionQuery(10, 9, "easy", "multiple");
+    private static final QuestionQuery HARD = new QuestionQuery(10, 9, "hard", "multiple");
+
+    @Test
+    @DisplayName("Test that recording a score returns the previous best of the same options")
+    public void testRecord() {
+        Leaderboard leaderboard = new Leaderboard(3);
+        assertNull(leaderboard.record(EASY, "alice", 30));
+        assertEquals(Integer.valueOf(30), leaderboard.record(EASY, "bob", 50));
+        assertEquals(Integer.valueOf(50), leaderboard.record(EASY, "alice", 20));
+        // Other options have scores of their own.
+        assertNull(leaderboard.record(HARD, "bob", -5));
+
+        assertEquals(Integer.valueOf(50), leaderboard.getBest(EASY));
+        assertEquals(Integer.valueOf(-5), leaderboard.getBest(HARD));
+        assertNull(leaderboard.getBest(new QuestionQuery(5, 0, "", "")));
+        assertEquals(3, leaderboard.getGames(EASY));
+    }
+
+    @Test
+    @DisplayName("Test that timed games have a leaderboard of their own for every time limit")
+    public void testTimeLimits() throws Exception {
+        Path directory = Files.createTempDirectory("leaderboard");
+        Path file = directory.resolve("scores.dat");
+        try {
+            Leaderboard leaderboard = Leaderboard.open(file, 3);
+            assertNull(leaderboard.record(EASY, "alice", 50));
+            assertNull(leaderboard.record(EASY, 10, "alice", 120));
+            assertEquals(Integer.valueOf(120), leaderboard.record(EASY, 10, "bob", 90));
+            assertNull(leaderboard.record(EASY, 20, "bob", 100));
+            assertEquals(Integer.valueOf(50), leaderboard.getBest(EASY));
+            leaderboard.close();
+
+            Leaderboard reopened = Leaderboard.open(file, 3);
+            assertEquals(Integer.valueOf(50), reopened.getBest(EASY, 0));
+            assertEquals(Integer.valueOf(120), reopened.getBest(EASY, 10));
+            assertEquals(2, reopened.getGames(EASY, 10));
+            assertEquals("bob", reopened.top(EASY, 20, 1).get(0).getPlayer());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that only the best scores are kept, best first")
+    public void testTop() {
+        Leaderboard leaderboard = new Leaderboard(3);
+        int[] scores = {10, 40, 20, 40, 30, 0};
+        for (int i = 0; i < scores.length; i++) {
+            leaderboard.record(EASY, "player" + i, scores[i]);
+        }
+        List<Leaderboard.Score> top = leaderboard.top(EASY, 10);
+        assertEquals(3, top.size());
+        // Equal scores keep the order they were recorded in.
+        assertEquals("player1", top.get(0).getPlayer());
+        assertEquals("player3", top.get(1).getPlayer());
+        assertEquals(30, top.get(2).getScore());
+        assertEquals(1, leaderboard.top(EASY, 1).size());
+        assertTrue(leaderboard.top(HARD, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test that scores recorded from many threads are all counted")
+    public void testConcurrentRecords() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(5);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        leaderboard.record(EASY, "thread" + thread, thread * 1000 + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(4000, leaderboard.getGames(EASY));
+        assertEquals(Integer.valueOf(3999), leaderboard.getBest(EASY));
+        List<Leaderboard.Score> top = leaderboard.top(EASY, 5);
+        assertEquals(5, top.size());
+        assertEquals(3995, top.get(4).getScore());
+    }
+
+    @Test
+    @DisplayName("Test that every best score recorded from many threads is reported beaten only once")
+    public void testConcurrentNewBest() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(5);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Integer> beaten = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger firstGames = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                // Every thread records the same rising scores, so they race for every new best
+                futures.add(executor.submit(() -> {
+                    for (int score = 0; score < 1000; score++) {
+                        Integer previousBest = leaderboard.record(EASY, "player", score);
+                        if (previousBest == null) {
+                            firstGames.incrementAndGet();
+                        } else if (score > previousBest) {
+                            beaten.add(previousBest);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, firstGames.get());
+        assertEquals(new HashSet<>(beaten).size(), beaten.size());
+        assertEquals(Integer.valueOf(999), leaderboard.getBest(EASY));
+    }
+
+    @Test
+    @DisplayName("Test that a snapshot is loaded back when the leaderboard is opened again")
+    public void testSnapshot() throws Exception {
+        Path directory = Files.createTempDirectory("leaderboard");
+        Path file = directory.resolve("scores.dat");
+        try {
+            Leaderboard leaderboard = Leaderboard.open(file, 3);
+            assertNull(leaderboard.getBest(EASY));
+            leaderboard.record(EASY, "alice", 30);
+            leaderboard.record(EASY, "bob", 50);
+            leaderboard.record(HARD, "carol", 10);
+            leaderboard.close();
+            assertTrue(Files.exists(file));
+
+            Leaderboard reopened = Leaderboard.open(file, 3);
+            assertEquals(Integer.valueOf(50), reopened.getBest(EASY));
+            assertEquals(2, reopened.getGames(EASY));
+            assertEquals("bob", reopened.top(EASY, 1).get(0).getPlayer());
+            assertEquals(Integer.valueOf(50), reopened.record(EASY, "alice", 60));
+            assertEquals(Integer.valueOf(10), reopened.getBest(HARD));
+            reopened.close();
+
+            assertEquals(Integer.valueOf(60), Leaderboard.open(file, 3).getBest(EASY));
+            // A smaller capacity keeps only the best of the loaded scores.
+            List<Leaderboard.Score> top = Leaderboard.open(file, 1).top(EASY, 5);
+            assertEquals(1, top.size());
+            assertEquals(60, top.get(0).getScore());
+            // Only the snapshot itself is left, no temporary files.
+            try (var files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    Files.delete(f);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//question source backed by the api, one Client per query on the shared transport
+public class LiveQuestionSource implements QuestionSource {
+
+	private final String baseUri;
+	private final SessionToken sessionToken;
+
+	//the public api without a session token
+	public LiveQuestionSource() {
+		this(null, null);
+	}
+
+	//baseUri is the api endpoint, null means the default one
+	//sessionToken is sent with every request, null means none
+	public LiveQuestionSource(String baseUri, SessionToken sessionToken) {
+		this.baseUri = baseUri;
+		this.sessionToken = sessionToken;
+	}
+
+	@Override
+	public DataResponse fetch(QuestionQuery query) throws IOException, InterruptedException {
+		return newClient(query).fetchData();
+	}
+
+	@Override
+	public CompletableFuture<DataResponse> fetchAsync(QuestionQuery query) {
+		return newClient(query).fetchDataAsync();
+	}
+
+	private Client newClient(QuestionQuery query) {
+		Client.Builder builder = Client.builder().query(query).sessionToken(sessionToken);
+		if (baseUri != null) {
+			builder.baseUri(baseUri);
+		}
+		return builder.build();
+	}
+}
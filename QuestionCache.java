@@ -0,0 +1,213 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//in memory cache of question pools in front of another question source, the api by default
+//a pool is fetched once per category/difficulty/type and every request for the same
+//parameters is answered by sampling from it, until the pool expires or gets evicted
+//without a loader the cache only answers from its pools (null on a miss) and is filled through offer,
+//which is how it is used as the first tier of a TieredQuestionSource
+public class QuestionCache implements QuestionSource {
+
+	//the api returns at most 50 questions per request
+	public static final int DEFAULT_POOL_SIZE = 50;
+
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final int poolSize;
+	private final QuestionSource loader;
+
+	//access ordered map, so the eldest entry is always the least recently used one
+	private final Map<QuestionQuery, Pool> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public QuestionCache(int maxEntries, Duration ttl) {
+		this(maxEntries, ttl, DEFAULT_POOL_SIZE, new LiveQuestionSource());
+	}
+
+	//cache without a loader, only filled through offer
+	public QuestionCache(int maxEntries, Duration ttl, int poolSize) {
+		this(maxEntries, ttl, poolSize, (QuestionSource) null);
+	}
+
+	//baseUri is the api endpoint the pools are fetched from, null means the default one
+	public QuestionCache(int maxEntries, Duration ttl, int poolSize, String baseUri) {
+		this(maxEntries, ttl, poolSize, new LiveQuestionSource(baseUri, null));
+	}
+
+	//loader is the source the pools are fetched from, null means the cache is only filled through offer
+	public QuestionCache(int maxEntries, Duration ttl, int poolSize, QuestionSource loader) {
+		if (maxEntries < 1 || poolSize < 1) {
+			throw new IllegalArgumentException("maxEntries and poolSize must be positive");
+		}
+		this.maxEntries = maxEntries;
+		this.ttlNanos = ttl.toNanos();
+		this.poolSize = poolSize;
+		this.loader = loader;
+		this.entries = new LinkedHashMap<QuestionQuery, Pool>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<QuestionQuery, Pool> eldest) {
+				if (size() > QuestionCache.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	//blocking version of fetchAsync
+	@Override
+	public DataResponse fetch(QuestionQuery query) throws IOException, InterruptedException {
+		try {
+			return fetchAsync(query).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	//returns query.getAmount() random questions for the query
+	//a hit completes immediately, a miss loads a new pool from the loader first (or completes with null without one)
+	//errors of the loader (response code other than 0) are passed through and not cached
+	@Override
+	public CompletableFuture<DataResponse> fetchAsync(QuestionQuery query) {
+		QuestionQuery key = query.withAmount(0);
+		DataQuestion[] pool = lookup(key, query.getAmount());
+		if (pool != null) {
+			hits.incrementAndGet();
+			return CompletableFuture.completedFuture(new DataResponse(0, sample(pool, query.getAmount())));
+		}
+		misses.incrementAndGet();
+		if (loader == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		return loadPool(query).thenApply(response -> {
+			if (response == null || response.getResponseCode() != 0 || response.getResults() == null) {
+				return response;
+			}
+			DataQuestion[] loaded = response.getResults();
+			offer(query, loaded);
+			return new DataResponse(0, sample(loaded, query.getAmount()));
+		});
+	}
+
+	//a full pool is requested first; when the loader cannot fill it (e.g. a small category)
+	//we fall back to exactly the requested amount
+	private CompletableFuture<DataResponse> loadPool(QuestionQuery query) {
+		if (query.getAmount() >= poolSize) {
+			return loader.fetchAsync(query);
+		}
+		return loader.fetchAsync(query.withAmount(poolSize)).thenCompose(response -> {
+			if (response != null && response.getResponseCode() == 0) {
+				return CompletableFuture.completedFuture(response);
+			}
+			return loader.fetchAsync(query);
+		});
+	}
+
+	//a pool of poolSize questions, or the requested amount if that is larger
+	@Override
+	public int batchSize(QuestionQuery query) {
+		return Math.max(poolSize, query.getAmount());
+	}
+
+	//keeps the questions as the pool of the query's category/difficulty/type
+	@Override
+	public void offer(QuestionQuery query, DataQuestion[] questions) {
+		if (questions == null || questions.length == 0) {
+			return;
+		}
+		synchronized (entries) {
+			entries.put(query.withAmount(0), new Pool(questions, System.nanoTime()));
+		}
+	}
+
+	//returns the pool for the key if it is fresh and large enough, otherwise null
+	private DataQuestion[] lookup(QuestionQuery key, int amount) {
+		synchronized (entries) {
+			Pool entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (System.nanoTime() - entry.loadedAt >= ttlNanos) {
+				entries.remove(key);
+				return null;
+			}
+			return entry.pool.length >= amount ? entry.pool : null;
+		}
+	}
+
+	//partial Fisher-Yates shuffle, only the first amount positions are shuffled
+	static DataQuestion[] sample(DataQuestion[] pool, int amount) {
+		DataQuestion[] copy = pool.clone();
+		int n = Math.min(amount, copy.length);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < n; i++) {
+			int j = i + random.nextInt(copy.length - i);
+			DataQuestion tmp = copy[i];
+			copy[i] = copy[j];
+			copy[j] = tmp;
+		}
+		if (n == copy.length) {
+			return copy;
+		}
+		DataQuestion[] result = new DataQuestion[n];
+		System.arraycopy(copy, 0, result, 0, n);
+		return result;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	//a cached pool and the time it was loaded
+	private static class Pool {
+		private final DataQuestion[] pool;
+		private final long loadedAt;
+
+		private Pool(DataQuestion[] pool, long loadedAt) {
+			this.pool = pool;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
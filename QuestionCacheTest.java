@@ -0,0 +1,105 @@
+package gr.unipi.opentriviaapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuestionCacheTest {
+
+    private HttpServer server;
+    private String baseUri;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Local server that always answers with a pool of three questions.
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        baseUri = "http://localhost:" + server.getAddress().getPort() + "/";
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            StringBuilder json = new StringBuilder("{\"response_code\":0, \"results\": [");
+            for (int i = 0; i < 3; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"category\":\"Science: Computers\",\"type\":\"boolean\",\"difficulty\":\"easy\",")
+                    .append("\"question\":\"Question ").append(i).append("\",")
+                    .append("\"correct_answer\":\"True\",\"incorrect_answers\":[\"False\"]}");
+            }
+            json.append("]}");
+            byte[] responseBytes = json.toString().getBytes();
+            exchange.sendResponseHeaders(200, responseBytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(responseBytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that a second request with the same parameters is sampled from the cached pool.
+     */
+    @Test
+    public void testSecondFetchIsServedFromCache() throws Exception {
+        QuestionCache cache = new QuestionCache(4, Duration.ofMinutes(5), 3, baseUri);
+        QuestionQuery query = new QuestionQuery(2, 18, "easy", "boolean");
+
+        Client.DataResponse first = cache.fetch(query);
+        Client.DataResponse second = cache.fetch(query.withAmount(3));
+
+        assertEquals(0, first.getResponseCode());
+        assertEquals(2, first.getResults().length);
+        assertEquals(3, second.getResults().length);
+        assertEquals(1, requests.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Test that the least recently used pool is evicted when the cache is full.
+     */
+    @Test
+    public void testLeastRecentlyUsedPoolIsEvicted() throws Exception {
+        QuestionCache cache = new QuestionCache(1, Duration.ofMinutes(5), 3, baseUri);
+
+        cache.fetch(new QuestionQuery(1, 9, "", ""));
+        cache.fetch(new QuestionQuery(1, 10, "", ""));
+        cache.fetch(new QuestionQuery(1, 9, "", ""));
+
+        assertEquals(3, requests.get());
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    /**
+     * Test that expired pools are fetched again.
+     */
+    @Test
+    public void testExpiredPoolIsReloaded() throws Exception {
+        QuestionCache cache = new QuestionCache(4, Duration.ZERO, 3, baseUri);
+        QuestionQuery query = new QuestionQuery(1, 0, "", "");
+
+        cache.fetch(query);
+        cache.fetch(query);
+
+        assertEquals(2, requests.get());
+        assertEquals(0, cache.getHits());
+    }
+}
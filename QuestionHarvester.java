@@ -0,0 +1,165 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//pulls every question of a category out of the api, e.g. to fill a local question bank off-peak
+//the category is split into disjoint difficulty/type queries that run concurrently,
+//all of them share one session token so no question is returned twice,
+//and requests are paced so that together they stay under the rate limit of the api
+//every request also waits for the limiter shared by every Client of the api host, e.g. a running game,
+//and failed or rate limited requests are repeated as the RetryPolicy says
+public class QuestionHarvester {
+
+	//the api returns at most 50 questions per request
+	private static final int MAX_AMOUNT = 50;
+
+	private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+	private static final String[] TYPES = {"multiple", "boolean"};
+
+	private final String baseUri;
+	private final String tokenUri;
+	private final Duration requestInterval;
+	private final int concurrency;
+	private final RetryPolicy retryPolicy;
+
+	//harvester for the public api, one request every 5 seconds as the api asks for
+	public QuestionHarvester() {
+		this(null, null, Duration.ofSeconds(5), 2);
+	}
+
+	//baseUri and tokenUri are the api endpoints, null means the default ones
+	//requestInterval is the minimum time between two requests of any worker
+	public QuestionHarvester(String baseUri, String tokenUri, Duration requestInterval, int concurrency) {
+		this(baseUri, tokenUri, requestInterval, concurrency, RetryPolicy.defaults());
+	}
+
+	//same as above, failed and rate limited requests are repeated as the retry policy says
+	public QuestionHarvester(String baseUri, String tokenUri, Duration requestInterval, int concurrency, RetryPolicy retryPolicy) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("concurrency must be positive");
+		}
+		this.baseUri = baseUri;
+		this.tokenUri = tokenUri;
+		this.requestInterval = requestInterval;
+		this.concurrency = concurrency;
+		this.retryPolicy = retryPolicy;
+	}
+
+	//harvests the whole category (0 means every category) into a list
+	public List<DataQuestion> harvest(int category) throws IOException, InterruptedException {
+		List<DataQuestion> questions = Collections.synchronizedList(new ArrayList<>());
+		harvest(category, questions::add);
+		return new ArrayList<>(questions);
+	}
+
+	//harvests the whole category (0 means every category) and passes every question to the sink
+	//the sink is called from several threads and must be thread safe
+	//returns the number of harvested questions
+	public int harvest(int category, Consumer<DataQuestion> sink) throws IOException, InterruptedException {
+		SessionToken token = tokenUri == null ? new SessionToken() : new SessionToken(tokenUri);
+		token.request();
+
+		//paces the requests of all workers of this harvest
+		RateLimiter pacer = new RateLimiter(1, requestInterval);
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			List<Future<Integer>> workers = new ArrayList<>();
+			for (String difficulty : DIFFICULTIES) {
+				for (String type : TYPES) {
+					QuestionQuery query = new QuestionQuery(MAX_AMOUNT, category, difficulty, type);
+					workers.add(executor.submit(() -> harvestQuery(query, token, pacer, sink)));
+				}
+			}
+
+			int total = 0;
+			for (Future<Integer> worker : workers) {
+				try {
+					total += worker.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					if (e.getCause() instanceof InterruptedException) {
+						throw (InterruptedException) e.getCause();
+					}
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new IOException(e.getCause());
+				}
+			}
+			return total;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	//requests the query until the token is exhausted for it
+	//when fewer questions are left than asked for, the api answers "no results",
+	//so the amount is halved until the remaining questions are returned
+	private int harvestQuery(QuestionQuery query, SessionToken token, RateLimiter pacer, Consumer<DataQuestion> sink) throws IOException, InterruptedException {
+		int amount = query.getAmount();
+		int harvested = 0;
+		while (true) {
+			pacer.acquire();
+			Client.Builder builder = Client.builder().query(query.withAmount(amount)).sessionToken(token).retryPolicy(retryPolicy);
+			if (baseUri != null) {
+				builder.baseUri(baseUri);
+			}
+			//waits for the shared limiter of the host and retries, but leaves the exhausted token alone
+			DataResponse response = builder.build().fetchData(false);
+
+			switch (response.getResponseCode()) {
+				case Client.RESPONSE_SUCCESS:
+					for (DataQuestion question : response.getResults()) {
+						sink.accept(question);
+					}
+					harvested += response.getResults().length;
+					break;
+				case Client.RESPONSE_NO_RESULTS:
+					if (amount == 1) {
+						return harvested;
+					}
+					amount = Math.max(1, amount / 2);
+					break;
+				case Client.RESPONSE_TOKEN_EMPTY:
+					return harvested;
+				default:
+					throw new TriviaApiException("Could not harvest questions (" + query + "). Response code: " + response.getResponseCode());
+			}
+		}
+	}
+
+	//fills a QuestionStore with whole categories, e.g. from a scheduled job during off-peak hours
+	//usage: QuestionHarvester <store directory> <category code>...
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2) {
+			System.err.println("Usage: QuestionHarvester <store directory> <category code>...");
+			System.exit(1);
+		}
+		QuestionHarvester harvester = new QuestionHarvester();
+		try (QuestionStore store = QuestionStore.open(Paths.get(args[0]))) {
+			for (int i = 1; i < args.length; i++) {
+				int category = Integer.parseInt(args[i]);
+				List<DataQuestion> questions = harvester.harvest(category);
+				store.append(category, questions);
+				System.out.println("Category " + category + ": " + questions.size() + " questions");
+			}
+			System.out.println("The store holds " + store.size() + " questions");
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package gr.unipi.opentriviaapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuestionHarvesterTest {
+
+    // Number of questions the stub api has for every difficulty/type combination.
+    private static final int QUESTIONS_PER_QUERY = 7;
+
+    private HttpServer server;
+    private String baseUri;
+
+    // Questions already returned per difficulty/type, like the session token of the real api.
+    private final Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+    // Requests per difficulty/type still answered with response code 5 (rate limit).
+    private final Map<String, AtomicInteger> rateLimited = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        baseUri = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/api_token.php", exchange -> respond(exchange, "{\"response_code\":0,\"token\":\"abc\"}"));
+        server.createContext("/api.php", exchange -> {
+            Map<String, String> params = new ConcurrentHashMap<>();
+            for (String param : exchange.getRequestURI().getQuery().split("&")) {
+                String[] pair = param.split("=");
+                params.put(pair[0], pair[1]);
+            }
+            String key = params.get("difficulty") + "/" + params.get("type");
+            int amount = Integer.parseInt(params.get("amount"));
+            requests.incrementAndGet();
+            AtomicInteger limited = rateLimited.get(key);
+            if (limited != null && limited.getAndDecrement() > 0) {
+                respond(exchange, "{\"response_code\":5, \"results\": []}");
+                return;
+            }
+            AtomicInteger count = served.computeIfAbsent(key, k -> new AtomicInteger());
+            synchronized (count) {
+                int left = QUESTIONS_PER_QUERY - count.get();
+                if (left == 0) {
+                    respond(exchange, "{\"response_code\":4, \"results\": []}");
+                    return;
+                }
+                if (left < amount) {
+                    respond(exchange, "{\"response_code\":1, \"results\": []}");
+                    return;
+                }
+                StringBuilder json = new StringBuilder("{\"response_code\":0, \"results\": [");
+                for (int i = 0; i < amount; i++) {
+                    if (i > 0) {
+                        json.append(',');
+                    }
+                    json.append("{\"category\":\"Books\",\"type\":\"").append(params.get("type"))
+                        .append("\",\"difficulty\":\"").append(params.get("difficulty"))
+                        .append("\",\"question\":\"").append(key).append(' ').append(count.getAndIncrement())
+                        .append("\",\"correct_answer\":\"A\",\"incorrect_answers\":[\"B\"]}");
+                }
+                json.append("]}");
+                respond(exchange, json.toString());
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that every question of the category is harvested exactly once.
+     */
+    @Test
+    public void testHarvestWholeCategory() throws Exception {
+        QuestionHarvester harvester = new QuestionHarvester(baseUri + "/api.php", baseUri + "/api_token.php",
+                Duration.ofMillis(1), 3);
+
+        List<Client.DataQuestion> questions = harvester.harvest(10);
+
+        assertEquals(6 * QUESTIONS_PER_QUERY, questions.size());
+        Set<String> distinct = new HashSet<>();
+        for (Client.DataQuestion question : questions) {
+            distinct.add(question.getQuestion());
+        }
+        assertEquals(questions.size(), distinct.size());
+    }
+
+    /**
+     * Test that every request waits for the limiter shared by every client of the host.
+     */
+    @Test
+    public void testHarvestUsesSharedRateLimiter() throws Exception {
+        AtomicInteger permits = new AtomicInteger();
+        RateLimiter.register("localhost", new RateLimiter(1, Duration.ZERO) {
+            @Override
+            public long reserve() {
+                permits.incrementAndGet();
+                return 0;
+            }
+        });
+        try {
+            QuestionHarvester harvester = new QuestionHarvester(baseUri + "/api.php", baseUri + "/api_token.php",
+                    Duration.ofMillis(1), 3);
+            assertEquals(6 * QUESTIONS_PER_QUERY, harvester.harvest(10).size());
+            // The token request and every question request
+            assertEquals(requests.get() + 1, permits.get());
+        } finally {
+            RateLimiter.register("localhost", RateLimiter.unlimited());
+        }
+    }
+
+    /**
+     * Test that rate limited requests are repeated and the harvest still gets every question.
+     */
+    @Test
+    public void testHarvestRetriesRateLimit() throws Exception {
+        rateLimited.put("easy/multiple", new AtomicInteger(2));
+        rateLimited.put("hard/boolean", new AtomicInteger(1));
+        QuestionHarvester harvester = new QuestionHarvester(baseUri + "/api.php", baseUri + "/api_token.php",
+                Duration.ofMillis(1), 3, new RetryPolicy(3, Duration.ZERO, Duration.ZERO, 0, Duration.ofMillis(1)));
+
+        assertEquals(6 * QUESTIONS_PER_QUERY, harvester.harvest(10).size());
+    }
+
+    /**
+     * Test that a query that stays rate limited fails after the attempts of the retry policy.
+     */
+    @Test
+    public void testHarvestGivesUpOnRateLimit() {
+        rateLimited.put("medium/boolean", new AtomicInteger(Integer.MAX_VALUE));
+        QuestionHarvester harvester = new QuestionHarvester(baseUri + "/api.php", baseUri + "/api_token.php",
+                Duration.ofMillis(1), 1, new RetryPolicy(3, Duration.ZERO, Duration.ZERO, 0, Duration.ofMillis(1)));
+
+        assertThrows(RateLimitException.class, () -> harvester.harvest(10));
+        assertEquals(Integer.MAX_VALUE - 3, rateLimited.get("medium/boolean").get());
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] responseBytes = json.getBytes();
+        exchange.sendResponseHeaders(200, responseBytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+}
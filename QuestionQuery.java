@@ -0,0 +1,63 @@
+package gr.unipi.opentriviaapi;
+
+import java.util.Objects;
+
+//immutable set of query parameters for the api
+//used as a key wherever questions are stored per query, e.g. by the QuestionCache
+public final class QuestionQuery {
+	
+	private final int amount;
+	private final int category;
+	private final String difficulty;
+	private final String type;
+	
+	//category 0 means any category, an empty difficulty or type means any
+	public QuestionQuery(int amount, int category, String difficulty, String type) {
+		this.amount = amount;
+		this.category = category;
+		this.difficulty = difficulty == null ? "" : difficulty;
+		this.type = type == null ? "" : type;
+	}
+	
+	public int getAmount() {
+		return amount;
+	}
+	
+	public int getCategory() {
+		return category;
+	}
+	
+	public String getDifficulty() {
+		return difficulty;
+	}
+	
+	public String getType() {
+		return type;
+	}
+	
+	//same query for a different number of questions
+	public QuestionQuery withAmount(int amount) {
+		return amount == this.amount ? this : new QuestionQuery(amount, category, difficulty, type);
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) return true;
+		if (!(o instanceof QuestionQuery)) return false;
+		QuestionQuery other = (QuestionQuery) o;
+		return amount == other.amount &&
+				category == other.category &&
+				difficulty.equals(other.difficulty) &&
+				type.equals(other.type);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(amount, category, difficulty, type);
+	}
+	
+	@Override
+	public String toString() {
+		return "amount=" + amount + ", category=" + category + ", difficulty=" + difficulty + ", type=" + type;
+	}
+}
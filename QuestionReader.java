@@ -0,0 +1,106 @@
+package gr.unipi.opentriviaapi;
+
+//import libraries for reading the response body
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//import external libraries for streaming json deserialization
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+
+//reads the questions of an api response one at a time with a streaming JsonReader,
+//so only the current question is kept in memory and the first one is available
+//before the rest of the body has been downloaded
+//must be closed when done, closing releases the underlying connection
+public class QuestionReader implements Iterator<DataQuestion>, Closeable {
+	
+	private final TypeAdapter<DataQuestion> adapter;
+	private final JsonReader reader;
+	
+	private int responseCode;
+	private boolean started;
+	private boolean inResults;
+	private boolean finished;
+	private DataQuestion next;
+	
+	QuestionReader(Gson gson, Reader in) {
+		this.adapter = gson.getAdapter(DataQuestion.class);
+		this.reader = new JsonReader(in);
+	}
+	
+	//the response code read so far, the api sends it before the results
+	public int getResponseCode() {
+		return responseCode;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (finished) {
+			return false;
+		}
+		try {
+			next = advance();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return next != null;
+	}
+	
+	@Override
+	public DataQuestion next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		DataQuestion question = next;
+		next = null;
+		return question;
+	}
+	
+	//moves the reader to the next question of the results array, returns null at the end of the body
+	private DataQuestion advance() throws IOException {
+		if (!started) {
+			reader.beginObject();
+			started = true;
+		}
+		while (true) {
+			if (inResults) {
+				if (reader.hasNext()) {
+					return adapter.read(reader);
+				}
+				reader.endArray();
+				inResults = false;
+				continue;
+			}
+			if (!reader.hasNext()) {
+				reader.endObject();
+				finished = true;
+				return null;
+			}
+			String name = reader.nextName();
+			if (name.equals("response_code")) {
+				responseCode = reader.nextInt();
+			} else if (name.equals("results")) {
+				reader.beginArray();
+				inResults = true;
+			} else {
+				reader.skipValue();
+			}
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		reader.close();
+	}
+}
@@ -0,0 +1,38 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//anything that can answer a query with questions: the live api, a cache, a local store, a stub
+//sources can be chained with TieredQuestionSource, so the fastest one that has the questions answers
+public interface QuestionSource {
+
+	//returns the questions for the query in the same shape as the api does,
+	//or null if this source cannot answer the query at all
+	//a response code other than RESPONSE_SUCCESS means the source has no (or not enough) questions
+	DataResponse fetch(QuestionQuery query) throws IOException, InterruptedException;
+
+	//asynchronous version of fetch
+	//the default answers on the calling thread, sources that wait for the network override it
+	default CompletableFuture<DataResponse> fetchAsync(QuestionQuery query) {
+		try {
+			return CompletableFuture.completedFuture(fetch(query));
+		} catch (IOException | InterruptedException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	//how many questions this source would like to be offered for the query,
+	//e.g. a cache asks for a whole pool so it can answer later queries by sampling
+	default int batchSize(QuestionQuery query) {
+		return query.getAmount();
+	}
+
+	//questions another source answered the query with, offered so this source can keep them
+	//sources that only read, like the api, ignore them
+	default void offer(QuestionQuery query, DataQuestion[] questions) {
+	}
+}
@@ -0,0 +1,355 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//offline question bank on disk
+//questions.dat holds the questions as binary records, appended one after the other and never rewritten
+//questions.idx holds one fixed size entry per question (offset and length of the record, category,
+//difficulty and type) and is memory mapped, so finding and reading N random questions of a query
+//takes N small reads and no json parsing
+//safe to use from many threads, sampling runs concurrently with other sampling
+public class QuestionStore implements QuestionSource, Closeable {
+
+	private static final String DATA_FILE = "questions.dat";
+	private static final String INDEX_FILE = "questions.idx";
+
+	//index layout: 8 byte header, then entries of offset (long), length (int), category (short),
+	//difficulty (byte) and type (byte)
+	private static final int INDEX_MAGIC = 0x51494458; // "QIDX"
+	private static final int INDEX_VERSION = 1;
+	private static final int INDEX_HEADER_SIZE = 8;
+	private static final int INDEX_ENTRY_SIZE = 16;
+
+	private static final String[] DIFFICULTIES = {"", "easy", "medium", "hard"};
+	private static final String[] TYPES = {"", "multiple", "boolean"};
+
+	private final FileChannel data;
+	private final FileChannel index;
+	private MappedByteBuffer indexMap;
+	private int size;
+
+	//entry numbers per category/difficulty/type combination, built from the index when opened
+	private final Map<Integer, Bucket> buckets = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private QuestionStore(FileChannel data, FileChannel index) {
+		this.data = data;
+		this.index = index;
+	}
+
+	//opens the store in the directory, creating it if it does not exist
+	public static QuestionStore open(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		FileChannel data = FileChannel.open(directory.resolve(DATA_FILE),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		FileChannel index = FileChannel.open(directory.resolve(INDEX_FILE),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		QuestionStore store = new QuestionStore(data, index);
+		try {
+			store.load();
+		} catch (IOException | RuntimeException e) {
+			store.close();
+			throw e;
+		}
+		return store;
+	}
+
+	//reads the index and drops whatever a crash left behind after the last complete entry
+	private void load() throws IOException {
+		if (index.size() == 0) {
+			ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+			header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).flip();
+			index.write(header, 0);
+		}
+		long entries = (index.size() - INDEX_HEADER_SIZE) / INDEX_ENTRY_SIZE;
+		if (entries > Integer.MAX_VALUE) {
+			throw new IOException("Question index too large: " + entries + " entries");
+		}
+		index.truncate(INDEX_HEADER_SIZE + entries * INDEX_ENTRY_SIZE);
+		remap();
+
+		if (indexMap.getInt(0) != INDEX_MAGIC || indexMap.getInt(4) != INDEX_VERSION) {
+			throw new IOException("Not a question index or unsupported version");
+		}
+
+		size = (int) entries;
+		long dataEnd = 0;
+		for (int i = 0; i < size; i++) {
+			int position = INDEX_HEADER_SIZE + i * INDEX_ENTRY_SIZE;
+			bucket(indexMap.getShort(position + 12), indexMap.get(position + 14), indexMap.get(position + 15)).add(i);
+			dataEnd = indexMap.getLong(position) + indexMap.getInt(position + 8);
+		}
+		data.truncate(dataEnd);
+	}
+
+	private void remap() throws IOException {
+		indexMap = index.map(FileChannel.MapMode.READ_ONLY, 0, index.size());
+	}
+
+	//appends a question, category is the api category code it was fetched with (0 if unknown)
+	public void append(int category, DataQuestion question) throws IOException {
+		append(category, Collections.singletonList(question));
+	}
+
+	//appends the questions with one write to each file
+	public void append(int category, Collection<DataQuestion> questions) throws IOException {
+		if (questions.isEmpty()) {
+			return;
+		}
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		ByteBuffer entries = ByteBuffer.allocate(questions.size() * INDEX_ENTRY_SIZE);
+
+		lock.writeLock().lock();
+		try {
+			long offset = data.size();
+			DataOutputStream out = new DataOutputStream(records);
+			for (DataQuestion question : questions) {
+				int start = out.size();
+				writeRecord(out, question);
+				entries.putLong(offset + start)
+						.putInt(out.size() - start)
+						.putShort((short) category)
+						.put(code(DIFFICULTIES, question.getDifficulty()))
+						.put(code(TYPES, question.getType()));
+			}
+			out.flush();
+
+			//records first, so the index never points past the end of the data file
+			writeFully(data, ByteBuffer.wrap(records.toByteArray()), offset);
+			entries.flip();
+			writeFully(index, entries, index.size());
+			remap();
+
+			for (DataQuestion question : questions) {
+				bucket((short) category, code(DIFFICULTIES, question.getDifficulty()), code(TYPES, question.getType())).add(size++);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//number of stored questions
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//number of stored questions that match the query, the amount of the query is ignored
+	public int count(QuestionQuery query) {
+		lock.readLock().lock();
+		try {
+			int count = 0;
+			for (Bucket bucket : matchingBuckets(query)) {
+				count += bucket.size;
+			}
+			return count;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//up to query.getAmount() random distinct questions that match the query
+	public DataQuestion[] sample(QuestionQuery query) throws IOException {
+		lock.readLock().lock();
+		try {
+			List<Bucket> matching = matchingBuckets(query);
+			int total = 0;
+			for (Bucket bucket : matching) {
+				total += bucket.size;
+			}
+
+			//Floyd's algorithm, picks n distinct positions of the concatenated buckets
+			int n = Math.min(query.getAmount(), total);
+			int[] picked = new int[n];
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0, j = total - n; i < n; i++, j++) {
+				int candidate = random.nextInt(j + 1);
+				picked[i] = contains(picked, i, candidate) ? j : candidate;
+			}
+
+			DataQuestion[] questions = new DataQuestion[n];
+			for (int i = 0; i < n; i++) {
+				questions[i] = read(entryAt(matching, picked[i]));
+			}
+			return questions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//drop-in replacement for Client.fetchData: answers like the api would,
+	//with "no results" when the store does not hold enough questions for the query
+	@Override
+	public DataResponse fetch(QuestionQuery query) throws IOException {
+		if (count(query) < query.getAmount()) {
+			return new DataResponse(Client.RESPONSE_NO_RESULTS, new DataQuestion[0]);
+		}
+		return new DataResponse(Client.RESPONSE_SUCCESS, sample(query));
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			try {
+				data.close();
+			} finally {
+				index.close();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private List<Bucket> matchingBuckets(QuestionQuery query) {
+		byte difficulty = code(DIFFICULTIES, query.getDifficulty());
+		byte type = code(TYPES, query.getType());
+		List<Bucket> matching = new ArrayList<>();
+		for (Bucket bucket : buckets.values()) {
+			if ((query.getCategory() == 0 || bucket.category == query.getCategory())
+					&& (difficulty == 0 || bucket.difficulty == difficulty)
+					&& (type == 0 || bucket.type == type)) {
+				matching.add(bucket);
+			}
+		}
+		return matching;
+	}
+
+	private Bucket bucket(short category, byte difficulty, byte type) {
+		int key = (category << 16) | ((difficulty & 0xff) << 8) | (type & 0xff);
+		return buckets.computeIfAbsent(key, k -> new Bucket(category, difficulty, type));
+	}
+
+	//the entry number at the given position of the concatenated buckets
+	private static int entryAt(List<Bucket> buckets, int position) {
+		for (Bucket bucket : buckets) {
+			if (position < bucket.size) {
+				return bucket.entries[position];
+			}
+			position -= bucket.size;
+		}
+		throw new IndexOutOfBoundsException();
+	}
+
+	private static boolean contains(int[] values, int length, int value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private DataQuestion read(int entry) throws IOException {
+		int position = INDEX_HEADER_SIZE + entry * INDEX_ENTRY_SIZE;
+		long offset = indexMap.getLong(position);
+		int length = indexMap.getInt(position + 8);
+
+		ByteBuffer record = ByteBuffer.allocate(length);
+		while (record.hasRemaining()) {
+			if (data.read(record, offset + record.position()) < 0) {
+				throw new IOException("Question record " + entry + " is truncated");
+			}
+		}
+		return readRecord(new DataInputStream(new ByteArrayInputStream(record.array())));
+	}
+
+	private static void writeRecord(DataOutputStream out, DataQuestion question) throws IOException {
+		out.writeUTF(nullToEmpty(question.getCategory()));
+		out.writeUTF(nullToEmpty(question.getType()));
+		out.writeUTF(nullToEmpty(question.getDifficulty()));
+		out.writeUTF(nullToEmpty(question.getQuestion()));
+		out.writeUTF(nullToEmpty(question.getCorrectAnswer()));
+		String[] incorrectAnswers = question.getIncorrectAnswers() == null ? new String[0] : question.getIncorrectAnswers();
+		out.writeByte(incorrectAnswers.length);
+		for (String answer : incorrectAnswers) {
+			out.writeUTF(nullToEmpty(answer));
+		}
+	}
+
+	private static DataQuestion readRecord(DataInputStream in) throws IOException {
+		String category = in.readUTF();
+		String type = in.readUTF();
+		String difficulty = in.readUTF();
+		String question = in.readUTF();
+		String correctAnswer = in.readUTF();
+		String[] incorrectAnswers = new String[in.readUnsignedByte()];
+		for (int i = 0; i < incorrectAnswers.length; i++) {
+			incorrectAnswers[i] = in.readUTF();
+		}
+		return new DataQuestion(category, type, difficulty, question, correctAnswer, incorrectAnswers);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	//position of the value in the table, 0 (any/unknown) if it is not there
+	private static byte code(String[] table, String value) {
+		if (value != null) {
+			for (byte i = 1; i < table.length; i++) {
+				if (table[i].equalsIgnoreCase(value)) {
+					return i;
+				}
+			}
+		}
+		return 0;
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+	//growable list of the entry numbers of one category/difficulty/type combination
+	private static class Bucket {
+		private final short category;
+		private final byte difficulty;
+		private final byte type;
+		private int[] entries = new int[16];
+		private int size;
+
+		private Bucket(short category, byte difficulty, byte type) {
+			this.category = category;
+			this.difficulty = difficulty;
+			this.type = type;
+		}
+
+		private void add(int entry) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, size * 2);
+			}
+			entries[size++] = entry;
+		}
+	}
+}
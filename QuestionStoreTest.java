@@ -0,0 +1,91 @@
+package gr.unipi.opentriviaapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuestionStoreTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("question-store");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Test that stored questions survive reopening the store and are read back unchanged.
+     */
+    @Test
+    public void testQuestionsSurviveReopen() throws Exception {
+        try (QuestionStore store = QuestionStore.open(directory)) {
+            store.append(18, question("What does CPU stand for?", "medium", "multiple"));
+        }
+
+        try (QuestionStore store = QuestionStore.open(directory)) {
+            assertEquals(1, store.size());
+            Client.DataQuestion[] questions = store.sample(new QuestionQuery(1, 18, "medium", "multiple"));
+            assertEquals(1, questions.length);
+            assertEquals("What does CPU stand for?", questions[0].getQuestion());
+            assertEquals("Science: Computers", questions[0].getCategory());
+            assertEquals("answer", questions[0].getCorrectAnswer());
+            assertArrayEquals(new String[]{"wrong 1", "wrong 2", "wrong 3"}, questions[0].getIncorrectAnswers());
+        }
+    }
+
+    /**
+     * Test that sampling only returns distinct questions that match the query.
+     */
+    @Test
+    public void testSampleMatchesQuery() throws Exception {
+        try (QuestionStore store = QuestionStore.open(directory)) {
+            List<Client.DataQuestion> questions = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                questions.add(question("Question " + i, i % 3 == 0 ? "easy" : "hard", i % 2 == 0 ? "multiple" : "boolean"));
+            }
+            store.append(18, questions);
+            store.append(9, question("Other category", "easy", "multiple"));
+
+            QuestionQuery easy = new QuestionQuery(5, 18, "easy", "");
+            assertEquals(10, store.count(easy));
+            Client.DataQuestion[] sampled = store.sample(easy);
+            assertEquals(5, sampled.length);
+            Set<String> distinct = new HashSet<>();
+            for (Client.DataQuestion question : sampled) {
+                assertEquals("easy", question.getDifficulty());
+                distinct.add(question.getQuestion());
+            }
+            assertEquals(5, distinct.size());
+
+            assertEquals(31, store.count(new QuestionQuery(1, 0, "", "")));
+            assertEquals(Client.RESPONSE_NO_RESULTS, store.fetch(new QuestionQuery(11, 18, "easy", "")).getResponseCode());
+            assertEquals(Client.RESPONSE_SUCCESS, store.fetch(new QuestionQuery(10, 18, "easy", "")).getResponseCode());
+        }
+    }
+
+    private static Client.DataQuestion question(String text, String difficulty, String type) {
+        return new Client.DataQuestion("Science: Computers", type, difficulty, text, "answer",
+                new String[]{"wrong 1", "wrong 2", "wrong 3"});
+    }
+}
@@ -7,9 +7,13 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
@@ -23,21 +27,24 @@ import javax.swing.JRadioButton;
 import javax.swing.JSpinner;
 import javax.swing.SwingUtilities;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
 
 //imports the api developed as library jar
-import gr.unipi.opentriviaapi.Client;
-import gr.unipi.opentriviaapi.Client.DataResponse;
-import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.HttpStatusException;
+import gr.unipi.opentriviaapi.QuestionQuery;
+import gr.unipi.opentriviaapi.RateLimitException;
+import gr.unipi.opentriviaapi.TieredQuestionSource;
+import gr.unipi.quizgame.QuizSession.Question;
 
 public class QuizGameApp {
 
-    // Variables to hold maximum score and previous game parameters.
-    private static Integer maxScore = null;
-    private static GameOptions prevOptions = null;
+    // Best scores of every game options, kept across runs in the file named by the "quizgame.scores"
+    // system property, by default in the .quizgame directory of the user's home.
+    private static final Leaderboard leaderboard = Leaderboard.openDefault();
     
-    // Scoring rules
-    private static final int CORRECT_SCORE = 10;
-    private static final int WRONG_SCORE = -5;
+    // Where the questions come from: question pools in memory (kept for 30 minutes), then the
+    // offline question bank if the "quizgame.store" system property names its directory, then the API.
+    private static final TieredQuestionSource questionSource = QuizSession.createQuestionSource();
 
     // Main frame and card layout for swapping between panels.
     private JFrame frame;
@@ -48,6 +55,10 @@ public class QuizGameApp {
     private SettingsPanel settingsPanel;
     private GamePanel gamePanel;
     
+    // Next batch of questions, fetched in the background while a game is in progress.
+    private CompletableFuture<List<Question>> prefetchedQuestions;
+    private GameOptions prefetchedOptions;
+    
     public QuizGameApp() {
         frame = new JFrame("Java Quiz App");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -69,69 +80,91 @@ public class QuizGameApp {
     
     // Start the game with the given options.
     private void startGame(GameOptions options) {
-        // If game options are different from the previous game, then reset maximum score.
-        if (prevOptions != null && !prevOptions.equals(options)) {
-            maxScore = null;
+        // Use the batch prefetched during the previous game if the options did not change,
+        // otherwise retrieve questions from the middle library.
+        CompletableFuture<List<Question>> nextQuestions = takePrefetchedQuestions(options);
+        if (nextQuestions == null) {
+            nextQuestions = fetchQuestions(options);
+        }
+        if (nextQuestions.isDone()) {
+            showGame(nextQuestions, options);
+            return;
         }
-        prevOptions = options;
         
-        // Retrieve questions from the middle library
-        List<Question> questions = fetchQuestions(options);
+        // The questions arrive in the background, so the Event Dispatch Thread never waits for the network.
+        settingsPanel.setButtonsEnabled(false);
+        CompletableFuture<List<Question>> fetching = nextQuestions;
+        fetching.whenComplete((questions, error) -> SwingUtilities.invokeLater(() -> {
+            settingsPanel.setButtonsEnabled(true);
+            showGame(fetching, options);
+        }));
+    }
+    
+    // Show the game panel with the fetched questions, or an error if they could not be fetched.
+    private void showGame(CompletableFuture<List<Question>> fetched, GameOptions options) {
+        List<Question> questions;
+        try {
+            questions = fetched.join();
+        } catch (CompletionException e) {
+            JOptionPane.showMessageDialog(frame, errorMessage(e.getCause()), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         if (questions == null || questions.isEmpty()) {
             JOptionPane.showMessageDialog(frame, "Could not fetch questions from API.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
         gamePanel.setQuestions(questions, options);
         cardLayout.show(mainPanel, "GAME");
+        
+        // While this game is played, fetch the next batch with the same options.
+        prefetchedOptions = options;
+        prefetchedQuestions = fetchQuestions(options);
     }
     
-   //Fetch data from the library jar and populate the questions in a list
-    private List<Question> fetchQuestions(GameOptions options) {
-        List<Question> questionsList = new ArrayList<>();
-        try {
-            Client client;
-            if (options.category.equals("Any") 
-            	    && options.difficulty.equals("Any") 
-            	    && options.type.equals("Any")) {
-            	    client = new Client(options.number);
-            	} else {
-            	    int categoryInt = options.category.equals("Any") ? 0 : Integer.parseInt(options.categoryCode);
-            	    String difficultyParam = options.difficulty.equals("Any") ? "" : options.difficulty.toLowerCase();
-            	    String typeParam = options.type.equals("Any") ? "" : options.type.toLowerCase();
-            	    client = new Client(options.number, categoryInt, difficultyParam, typeParam);
-            	}
-            
-            DataResponse response = client.fetchData();
-            // Check if API response code indicates success (0 means success)
-            //otherwise displays error message
-            if (response.getResponseCode() != 0) {
-            	return null;
-            }
-            DataQuestion[] dataQuestions = response.getResults();
-            for (DataQuestion dq : dataQuestions) {
-                String questionText = htmlDecode(dq.getQuestion());
-                String correctAnswer = htmlDecode(dq.getCorrectAnswer());
-                List<String> incorrectAnswers = new ArrayList<>();
-                for (String ia : dq.getIncorrectAnswers()) {
-                    incorrectAnswers.add(htmlDecode(ia));
-                }
-                Question q = new Question(questionText, correctAnswer, incorrectAnswers, dq.getType());
-                questionsList.add(q);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    // Returns the prefetched batch if it was fetched for the same options, otherwise null.
+    // A batch that fails or has no questions, even after the game started waiting for it, is fetched again.
+    private CompletableFuture<List<Question>> takePrefetchedQuestions(GameOptions options) {
+        CompletableFuture<List<Question>> prefetched = prefetchedQuestions;
+        // The time limit does not change which questions are fetched.
+        boolean sameOptions = prefetchedOptions != null && query(options).equals(query(prefetchedOptions));
+        prefetchedQuestions = null;
+        prefetchedOptions = null;
+        if (prefetched == null || !sameOptions) {
             return null;
         }
-        return questionsList;
+        return prefetched.handle((questions, error) -> error == null && questions != null
+                ? CompletableFuture.completedFuture(questions)
+                : fetchQuestions(options)).thenCompose(next -> next);
+    }
+    
+   //Fetch data from the library jar and populate the questions in a list
+   //The returned future completes with null if the API has no questions for the options,
+   //and exceptionally if the questions could not be fetched
+    private CompletableFuture<List<Question>> fetchQuestions(GameOptions options) {
+        // Games are served from the fastest tier that has enough questions for the options.
+        return QuizSession.fetchQuestions(questionSource, query(options));
+    }
+    
+    // The options as the middle library expects them.
+    private static QuestionQuery query(GameOptions options) {
+        return new QuestionQuery(options.number,
+                options.category.equals("Any") ? 0 : Integer.parseInt(options.categoryCode),
+                options.difficulty.equals("Any") ? "" : options.difficulty.toLowerCase(),
+                options.type.equals("Any") ? "" : options.type.toLowerCase());
     }
     
-    // remove html special chars for displaying the data more clearly
-    private String htmlDecode(String s) {
-        return s.replace("&quot;", "\"")
-                .replace("&#039;", "'")
-                .replace("&amp;", "&")
-                .replace("&lt;", "<")
-                .replace("&gt;", ">");
+    // Message shown to the player for an error of the middle library.
+    private static String errorMessage(Throwable error) {
+        if (error instanceof RateLimitException) {
+            return "The trivia server is busy. Please try again in a few seconds.";
+        }
+        if (error instanceof HttpStatusException) {
+            return "Could not fetch questions from API.\nStatus error code: " + ((HttpStatusException) error).getStatusCode();
+        }
+        if (error instanceof IOException) {
+            return "Could not connect to the trivia server.\nPlease check your internet connection.";
+        }
+        return "Could not fetch questions from API.";
     }
     
     // Inner class representing game options.
@@ -142,13 +175,19 @@ public class QuizGameApp {
         String difficulty; // "Any", "Easy", "Medium", "Hard"
         String type;       // "Any", "Multiple", "Boolean"
         int number;
+        int secondsPerQuestion; // 0 for a game without a time limit
         
         public GameOptions(String category, String categoryCode, String difficulty, String type, int number) {
+            this(category, categoryCode, difficulty, type, number, 0);
+        }
+        
+        public GameOptions(String category, String categoryCode, String difficulty, String type, int number, int secondsPerQuestion) {
             this.category = category;
             this.categoryCode = categoryCode;
             this.difficulty = difficulty;
             this.type = type;
             this.number = number;
+            this.secondsPerQuestion = secondsPerQuestion;
         }
         
         @Override
@@ -159,22 +198,13 @@ public class QuizGameApp {
             return category.equals(other.category) &&
                    difficulty.equals(other.difficulty) &&
                    type.equals(other.type) &&
-                   number == other.number;
+                   number == other.number &&
+                   secondsPerQuestion == other.secondsPerQuestion;
         }
-    }
-    
-    // Class representing a quiz question.
-    private static class Question {
-        String questionText;
-        String correctAnswer;
-        List<String> incorrectAnswers;
-        String type; // "multiple" or "boolean"
         
-        public Question(String questionText, String correctAnswer, List<String> incorrectAnswers, String type) {
-            this.questionText = questionText;
-            this.correctAnswer = correctAnswer;
-            this.incorrectAnswers = incorrectAnswers;
-            this.type = type;
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, difficulty, type, number, secondsPerQuestion);
         }
     }
     
@@ -184,6 +214,7 @@ public class QuizGameApp {
         private JComboBox<String> difficultyCombo;
         private JComboBox<String> typeCombo;
         private JSpinner numberSpinner;
+        private JComboBox<String> timeCombo;
         private JButton defaultGameButton;
         private JButton customGameButton;
         
@@ -217,6 +248,9 @@ public class QuizGameApp {
         		{"Cartoon and Animations", "32"}
         };
         
+        // Time to answer every question, in seconds, 0 for no limit.
+        private int[] timeLimits = {0, 5, 10, 20, 30};
+        
         public SettingsPanel() {
             setLayout(new GridBagLayout());
             setBorder(BorderFactory.createEmptyBorder(20,20,20,20));
@@ -263,6 +297,18 @@ public class QuizGameApp {
             numberSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 50, 1));
             add(numberSpinner, gbc);
             
+            // Time per question
+            gbc.gridx = 0;
+            gbc.gridy = 4;
+            add(new JLabel("Time per question:"), gbc);
+            gbc.gridx = 1;
+            String[] timeNames = new String[timeLimits.length];
+            for (int i = 0; i < timeLimits.length; i++) {
+                timeNames[i] = timeLimits[i] == 0 ? "No limit" : timeLimits[i] + " seconds";
+            }
+            timeCombo = new JComboBox<>(timeNames);
+            add(timeCombo, gbc);
+            
             // Buttons panel
             JPanel buttonPanel = new JPanel();
             defaultGameButton = new JButton("Start New Game (with default settings)");
@@ -271,7 +317,7 @@ public class QuizGameApp {
             buttonPanel.add(customGameButton);
             
             gbc.gridx = 0;
-            gbc.gridy = 4;
+            gbc.gridy = 5;
             gbc.gridwidth = 2;
             add(buttonPanel, gbc);
             
@@ -295,28 +341,51 @@ public class QuizGameApp {
                 String difficulty = (String) difficultyCombo.getSelectedItem();
                 String type = (String) typeCombo.getSelectedItem();
                 int number = (Integer) numberSpinner.getValue();
-                GameOptions options = new GameOptions(category, categoryCode, difficulty, type, number);
+                int secondsPerQuestion = timeLimits[timeCombo.getSelectedIndex()];
+                GameOptions options = new GameOptions(category, categoryCode, difficulty, type, number, secondsPerQuestion);
                 startGame(options);
             });
         }
+        
+        // Enable or disable the start buttons, e.g. while questions are being fetched.
+        public void setButtonsEnabled(boolean enabled) {
+            defaultGameButton.setEnabled(enabled);
+            customGameButton.setEnabled(enabled);
+        }
     }
     
     // Panel for playing the game.
   // Panel for playing the game.
 private class GamePanel extends JPanel {
-    private List<Question> questions;
-    private int currentQuestionIndex = 0;
-    private int score = 0;
-    private int correctCount = 0; // New variable to count correct answers
+    // How long the feedback of an answer stays on screen before the next question.
+    private static final int FEEDBACK_MILLIS = 1500;
+    // How often the time left of a timed question is shown.
+    private static final int CLOCK_MILLIS = 50;
+    
+    // The game being played, scoring, progress and timing live in the session.
+    private QuizSession session;
     private GameOptions options;
     
     // UI components for the question.
     private JLabel questionLabel;
     private JPanel answersPanel;
     private JButton submitButton;
+    private JButton quitButton;
+    // Result of the last answer, shown in place of a dialog so the game never waits for a click.
+    private JLabel feedbackLabel;
+    // Score and time left.
+    private JLabel statusLabel;
     
-    // To hold answer choices (radio buttons).
+    // Radio buttons of the answer choices, created once and reused for every question:
+    // a question only changes their text and hides the ones it does not need.
     private ButtonGroup answerGroup;
+    private JRadioButton[] answerButtons = new JRadioButton[0];
+    
+    // Both timers fire on the Event Dispatch Thread, so they never race with the buttons.
+    private Timer clock;
+    private Timer nextQuestion;
+    // Time left as last shown, in tenths of a second.
+    private long shownTenths = -1;
     
     public GamePanel() {
         setLayout(new BorderLayout(10,10));
@@ -325,121 +394,213 @@ private class GamePanel extends JPanel {
         questionLabel = new JLabel("Question");
         add(questionLabel, BorderLayout.NORTH);
         
-        answersPanel = new JPanel();
+        answersPanel = new JPanel(new GridBagLayout());
         add(answersPanel, BorderLayout.CENTER);
+        answerGroup = new ButtonGroup();
+        // Multiple choice questions of the API have four answers.
+        ensureAnswerButtons(4);
         
+        // Feedback, score and time left, and the buttons below the answers.
+        JPanel bottomPanel = new JPanel(new BorderLayout(5,5));
+        feedbackLabel = new JLabel(" ");
+        bottomPanel.add(feedbackLabel, BorderLayout.NORTH);
+        statusLabel = new JLabel(" ");
+        bottomPanel.add(statusLabel, BorderLayout.WEST);
+        JPanel buttonPanel = new JPanel();
         submitButton = new JButton("Submit Answer");
-        add(submitButton, BorderLayout.SOUTH);
+        quitButton = new JButton("Quit");
+        quitButton.setVisible(false);
+        buttonPanel.add(submitButton);
+        buttonPanel.add(quitButton);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+        add(bottomPanel, BorderLayout.SOUTH);
+        
+        // Once the game is over the submit button starts a new one.
+        submitButton.addActionListener(e -> {
+            if (session.isFinished()) {
+                cardLayout.show(mainPanel, "SETTINGS");
+            } else {
+                handleAnswer();
+            }
+        });
+        quitButton.addActionListener(e -> System.exit(0));
         
-        submitButton.addActionListener(e -> handleAnswer());
+        clock = new Timer(CLOCK_MILLIS, e -> tick());
+        nextQuestion = new Timer(FEEDBACK_MILLIS, e -> showQuestion());
+        nextQuestion.setRepeats(false);
     }
     
     public void setQuestions(List<Question> questions, GameOptions options) {
-        this.questions = questions;
+        this.session = new QuizSession(questions,
+                options.secondsPerQuestion == 0 ? null : Duration.ofSeconds(options.secondsPerQuestion));
         this.options = options;
-        this.currentQuestionIndex = 0;
-        this.score = 0;
-        this.correctCount = 0; // Reset the correct answer count for a new game
+        nextQuestion.stop();
+        submitButton.setText("Submit Answer");
+        quitButton.setVisible(false);
         showQuestion();
     }
     
     private void showQuestion() {
-        answersPanel.removeAll();
-        answerGroup = new ButtonGroup();
+        answerGroup.clearSelection();
+        feedbackLabel.setText(" ");
 
-        if (currentQuestionIndex >= questions.size()) {
+        if (session.isFinished()) {
             endGame();
             return;
         }
-        Question q = questions.get(currentQuestionIndex);
-        questionLabel.setText((currentQuestionIndex+1) + ". " + q.questionText);
+        Question q = session.getCurrentQuestion();
+        questionLabel.setText((session.getCurrentQuestionIndex()+1) + ". " + q.getQuestionText());
 
-        List<String> choices = new ArrayList<>();
-        // If the question is boolean, manually add both options.
-        if (q.type.equalsIgnoreCase("boolean")) {
-            choices.add("True");
-            choices.add("False");
+        // The session shuffles the choices so the correct answer isn't always in the same place.
+        int choiceCount = session.getChoiceCount();
+        ensureAnswerButtons(choiceCount);
+        for (int i = 0; i < answerButtons.length; i++) {
+            // Swing only lays the panel out again when a text or the number of visible buttons changes.
+            if (i < choiceCount) {
+                answerButtons[i].setText(session.getChoice(i));
+            }
+            answerButtons[i].setVisible(i < choiceCount);
+        }
+        setAnswering(true);
+        
+        // The question is timed from the moment it is on screen.
+        session.startQuestion();
+        shownTenths = -1;
+        if (session.isTimed()) {
+            tick();
+            clock.start();
         } else {
-            choices.add(q.correctAnswer);           
-            choices.addAll(q.incorrectAnswers);
+            statusLabel.setText("Score: " + session.getScore());
+        }
+    }
+    
+    // Add buttons to the pool until it has at least count of them.
+    private void ensureAnswerButtons(int count) {
+        if (answerButtons.length >= count) {
+            return;
         }
-
-        // Shuffle the choices so the correct answer isn't always in the same place.
-        Collections.shuffle(choices);         
-
-        answersPanel.setLayout(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(5,5,5,5);
         gbc.gridx = 0;
         gbc.anchor = GridBagConstraints.WEST;
-        gbc.gridy = 0;  // make sure to start at row 0
-
-        for (String choice : choices) {
-            JRadioButton rb = new JRadioButton(choice);
-            // Set the button's action command to its text.
-            rb.setActionCommand(choice);
-            answerGroup.add(rb);
-            answersPanel.add(rb, gbc);
-            gbc.gridy++;
+        JRadioButton[] buttons = Arrays.copyOf(answerButtons, count);
+        for (int i = answerButtons.length; i < count; i++) {
+            buttons[i] = new JRadioButton();
+            buttons[i].setVisible(false);
+            answerGroup.add(buttons[i]);
+            gbc.gridy = i;
+            answersPanel.add(buttons[i], gbc);
+        }
+        answerButtons = buttons;
+    }
+    
+    // Position of the selected choice, -1 if none is selected.
+    private int selectedAnswer() {
+        for (int i = 0; i < answerButtons.length; i++) {
+            if (answerButtons[i].isSelected()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // Enable the answers and the submit button while a question waits for its answer.
+    private void setAnswering(boolean answering) {
+        submitButton.setEnabled(answering);
+        for (JRadioButton button : answerButtons) {
+            button.setEnabled(answering);
+        }
+    }
+    
+    // Show the time left of a timed question, and move on when it runs out.
+    private void tick() {
+        long remaining = session.getRemainingNanos();
+        if (remaining == 0) {
+            Question q = session.getCurrentQuestion();
+            session.timeOut();
+            showFeedback("Time is up! The correct answer was: " + q.getCorrectAnswer());
+            return;
+        }
+        // The label only changes ten times a second.
+        long tenths = remaining / 100_000_000;
+        if (tenths != shownTenths) {
+            shownTenths = tenths;
+            statusLabel.setText("Score: " + session.getScore() + "    Time left: " + tenths / 10 + "." + tenths % 10 + " s");
         }
-
-        answersPanel.revalidate();
-        answersPanel.repaint();
     }
 
     private void handleAnswer() {
         // Get selected answer
-        if (answerGroup.getSelection() == null) {
-            JOptionPane.showMessageDialog(frame, "Please select an answer!", "Warning", JOptionPane.WARNING_MESSAGE);
+        int selectedIndex = selectedAnswer();
+        if (selectedIndex < 0) {
+            feedbackLabel.setText("Please select an answer!");
             return;
         }
-        String selected = answerGroup.getSelection().getActionCommand();
-        
-        Question q = questions.get(currentQuestionIndex);
-        boolean correct = selected.equals(q.correctAnswer);
-        if (correct) {
-            score += CORRECT_SCORE;
-            correctCount++;  // Increment the correct answer count
-            JOptionPane.showMessageDialog(frame, "Correct!", "Result", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            score += WRONG_SCORE;
-            JOptionPane.showMessageDialog(frame, "Incorrect!\nThe correct answer was: " + q.correctAnswer, "Result", JOptionPane.INFORMATION_MESSAGE);
-        }
+        String selected = session.getChoice(selectedIndex);
         
-        currentQuestionIndex++;
-        if (currentQuestionIndex < questions.size()) {
-            showQuestion();
+        Question q = session.getCurrentQuestion();
+        int questionIndex = session.getCurrentQuestionIndex();
+        if (session.answer(selected)) {
+            long millis = session.getResponseNanos(questionIndex) / 1_000_000;
+            showFeedback("Correct! +" + session.getLastPoints() + " points in " + millis + " ms");
+        } else if (session.isTimed() && session.getResponseNanos(questionIndex) >= options.secondsPerQuestion * 1_000_000_000L) {
+            // The answer came after the time limit, before the clock noticed.
+            showFeedback("Time is up! The correct answer was: " + q.getCorrectAnswer());
         } else {
-            endGame();
+            showFeedback("Incorrect! The correct answer was: " + q.getCorrectAnswer());
         }
     }
     
+    // Show the result of the answer inline and the next question a moment later.
+    private void showFeedback(String message) {
+        clock.stop();
+        setAnswering(false);
+        feedbackLabel.setText(message);
+        statusLabel.setText("Score: " + session.getScore());
+        nextQuestion.restart();
+    }
+    
+    // Show the results in the panel; the submit button starts a new game and the quit button exits.
     private void endGame() {
-        // Calculate success rate as percentage of correct answers.
-        int successRate = (int) (((double) correctCount / questions.size()) * 100);
-        String message = "Game over!\nYour score: " + score + "\nSuccess rate: " + successRate + "%";
-        if (maxScore == null || score > maxScore) {
-            if (maxScore != null) {
-                message += "\nCongratulations! You beat your previous maximum score of " + maxScore + "!";
-            } else {
-                message += "\nThis is your first game!";
-            }
-            maxScore = score;
+        clock.stop();
+        // Success rate as percentage of correct answers.
+        int score = session.getScore();
+        int successRate = session.getSuccessRate();
+        String message = "Game over!<br>Your score: " + score + "<br>Success rate: " + successRate + "%"
+                + "<br>Average response time: " + session.getAverageResponseMillis() + " ms";
+        // The best score before this game, null if it is the first game with these options.
+        Integer maxScore = leaderboard.record(query(options), options.secondsPerQuestion, System.getProperty("user.name"), score);
+        if (maxScore == null) {
+            message += "<br>This is your first game!";
+        } else if (score > maxScore) {
+            message += "<br>Congratulations! You beat your previous maximum score of " + maxScore + "!";
         } else {
-            message += "\nYour maximum score remains: " + maxScore;
+            message += "<br>Your maximum score remains: " + maxScore;
         }
-        int choice = JOptionPane.showConfirmDialog(frame, message + "\nDo you want to start a new game?", "Game Over", JOptionPane.YES_NO_OPTION);
-        if (choice == JOptionPane.YES_OPTION) {
-            cardLayout.show(mainPanel, "SETTINGS");
-        } else {
-            System.exit(0);
+        questionLabel.setText("<html>" + message + "<br><br>Do you want to start a new game?</html>");
+        for (JRadioButton button : answerButtons) {
+            button.setVisible(false);
         }
+        feedbackLabel.setText(" ");
+        statusLabel.setText(" ");
+        submitButton.setText("New Game");
+        submitButton.setEnabled(true);
+        quitButton.setVisible(true);
     }
 }
 
 //we use main method to convert the class into executable app
     public static void main(String[] args) {
     	
+        // Save the scores of the session when the app exits, System.exit included.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                leaderboard.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        
         // Run Swing in the Event Dispatch Thread for better UI experience.
         SwingUtilities.invokeLater(() -> {
             new QuizGameApp();
@@ -43,20 +43,6 @@ public class QuizGameAppTest {
         }
     }
 
-    @Test
-    @DisplayName("Test that the htmlDecode method correctly replaces HTML entities")
-    public void testHtmlDecode() throws Exception {
-        // Access the private htmlDecode(String) method via reflection.
-        Method htmlDecodeMethod = QuizGameApp.class.getDeclaredMethod("htmlDecode", String.class);
-        htmlDecodeMethod.setAccessible(true);
-        
-        String input = "Test &quot;hello&quot; &amp; world &#039;example&#039; &lt;tag&gt;";
-        String expected = "Test \"hello\" & world 'example' <tag>";
-        
-        String output = (String) htmlDecodeMethod.invoke(app, input);
-        assertEquals(expected, output, "The htmlDecode method did not return the expected result.");
-    }
-
     @Test
     @DisplayName("Test that GameOptions.equals() works correctly")
     public void testGameOptionsEquals() throws Exception {
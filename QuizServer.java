@@ -0,0 +1,382 @@
+package gr.unipi.quizgame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+//imports the api developed as library jar
+import gr.unipi.opentriviaapi.HttpStatusException;
+import gr.unipi.opentriviaapi.QuestionQuery;
+import gr.unipi.opentriviaapi.QuestionSource;
+import gr.unipi.opentriviaapi.RateLimitException;
+import gr.unipi.quizgame.QuizSession.Question;
+
+// HTTP/JSON server hosting many quiz sessions in one JVM.
+// Every request is handled on a virtual thread when the JVM has them (Java 21+), otherwise on a cached
+// thread pool. All sessions share one question source, so games with the same options are served from
+// the same question pools.
+//
+//   POST   /sessions?amount=10&category=9&difficulty=easy&type=multiple   start a game
+//          (optional player=<name> and timeLimit=<seconds per question>)
+//   GET    /sessions/{id}                                                   current question and score
+//   POST   /sessions/{id}/answer   {"answer": "..."}                        answer the current question
+//   DELETE /sessions/{id}                                                   end the game
+//   GET    /leaderboard?amount=10&category=9&difficulty=easy&type=multiple  best scores of the options
+//
+// A finished game is recorded on the leaderboard under the "player" parameter it was started with.
+// A game started with "timeLimit=<seconds>" is timed: every question has to be answered within the limit,
+// counted from the answer to the previous question, and correct answers earn a speed bonus.
+public class QuizServer {
+
+    // Sessions nobody touched for this long are removed.
+    private static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final HttpServer server;
+    private final QuestionSource questionSource;
+    private final Leaderboard leaderboard;
+    private final ExecutorService executor = threadPerTaskExecutor();
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "quiz-session-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+
+    // Server whose scores are kept in memory only.
+    public QuizServer(int port, QuestionSource questionSource) throws IOException {
+        this(port, questionSource, new Leaderboard(Leaderboard.DEFAULT_CAPACITY));
+    }
+
+    public QuizServer(int port, QuestionSource questionSource, Leaderboard leaderboard) throws IOException {
+        this.questionSource = questionSource;
+        this.leaderboard = leaderboard;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/sessions", this::handle);
+        server.createContext("/leaderboard", this::handleLeaderboard);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        cleaner.scheduleWithFixedDelay(this::removeIdleSessions, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        server.stop(0);
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // The port the server listens on, useful when it was created with port 0.
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path is "", "sessions", then the id and the action if any
+            if (path.length == 2 && method.equals("POST")) {
+                createSession(exchange);
+            } else if (path.length == 3 && method.equals("GET")) {
+                Entry entry = session(exchange, path[2]);
+                if (entry != null) {
+                    send(exchange, 200, state(path[2], entry.session));
+                }
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                if (sessions.remove(path[2]) == null) {
+                    sendError(exchange, 404, "No such session");
+                } else {
+                    send(exchange, 204, null);
+                }
+            } else if (path.length == 4 && path[3].equals("answer") && method.equals("POST")) {
+                answer(exchange, path[2]);
+            } else {
+                sendError(exchange, 404, "Not found");
+            }
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        QuestionQuery query;
+        int timeLimitSeconds;
+        try {
+            query = query(exchange.getRequestURI());
+            timeLimitSeconds = timeLimitSeconds(exchange.getRequestURI());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Bad query: " + e.getMessage());
+            return;
+        }
+        // Waiting here is cheap, the request has a (virtual) thread of its own.
+        List<Question> questions;
+        try {
+            questions = QuizSession.fetchQuestions(questionSource, query).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RateLimitException) {
+                sendError(exchange, 503, "The trivia server is busy");
+            } else if (cause instanceof HttpStatusException) {
+                sendError(exchange, 502, "Trivia server error " + ((HttpStatusException) cause).getStatusCode());
+            } else {
+                sendError(exchange, 502, "Could not fetch questions");
+            }
+            return;
+        }
+        if (questions == null || questions.isEmpty()) {
+            sendError(exchange, 404, "No questions for these options");
+            return;
+        }
+        String id = UUID.randomUUID().toString();
+        QuizSession session = new QuizSession(questions,
+                timeLimitSeconds == 0 ? null : Duration.ofSeconds(timeLimitSeconds));
+        String player = parameters(exchange.getRequestURI()).getOrDefault("player", "anonymous");
+        sessions.put(id, new Entry(session, query, timeLimitSeconds, player));
+        send(exchange, 201, state(id, session));
+    }
+
+    private void answer(HttpExchange exchange, String id) throws IOException {
+        Entry entry = session(exchange, id);
+        if (entry == null) {
+            return;
+        }
+        String answer;
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonObject json = gson.fromJson(new String(body.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class);
+            answer = json == null || !json.has("answer") ? null : json.get("answer").getAsString();
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            answer = null;
+        }
+        if (answer == null) {
+            sendError(exchange, 400, "Expected {\"answer\": \"...\"}");
+            return;
+        }
+
+        QuizSession session = entry.session;
+        Map<String, Object> result;
+        // The question and the answer have to be read and changed together.
+        synchronized (session) {
+            if (session.isFinished()) {
+                sendError(exchange, 409, "The game is over");
+                return;
+            }
+            String correctAnswer = session.getCurrentQuestion().getCorrectAnswer();
+            int questionIndex = session.getCurrentQuestionIndex();
+            boolean correct = session.answer(answer);
+            if (session.isFinished()) {
+                leaderboard.record(entry.query, entry.timeLimitSeconds, entry.player, session.getScore());
+            }
+            result = state(id, session);
+            result.put("correct", correct);
+            result.put("correctAnswer", correctAnswer);
+            result.put("points", session.getLastPoints());
+            result.put("responseMillis", session.getResponseNanos(questionIndex) / 1_000_000);
+        }
+        send(exchange, 200, result);
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            QuestionQuery query;
+            int timeLimitSeconds;
+            try {
+                query = query(exchange.getRequestURI());
+                timeLimitSeconds = timeLimitSeconds(exchange.getRequestURI());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "Bad query: " + e.getMessage());
+                return;
+            }
+            List<Map<String, Object>> scores = new ArrayList<>();
+            for (Leaderboard.Score score : leaderboard.top(query, timeLimitSeconds, Leaderboard.DEFAULT_CAPACITY)) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("player", score.getPlayer());
+                entry.put("score", score.getScore());
+                entry.put("time", score.getTime());
+                scores.add(entry);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("games", leaderboard.getGames(query, timeLimitSeconds));
+            result.put("scores", scores);
+            send(exchange, 200, result);
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // The session of the id, or null after answering 404.
+    private Entry session(HttpExchange exchange, String id) throws IOException {
+        Entry entry = sessions.get(id);
+        if (entry == null) {
+            sendError(exchange, 404, "No such session");
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    // JSON view of a session: progress, score and the current question without its answer.
+    private static Map<String, Object> state(String id, QuizSession session) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        synchronized (session) {
+            state.put("id", id);
+            state.put("questionNumber", session.getCurrentQuestionIndex() + 1);
+            state.put("questionCount", session.getQuestionCount());
+            state.put("score", session.getScore());
+            state.put("correctCount", session.getCorrectCount());
+            state.put("finished", session.isFinished());
+            if (session.isFinished()) {
+                state.put("successRate", session.getSuccessRate());
+                state.put("averageResponseMillis", session.getAverageResponseMillis());
+            } else {
+                if (session.isTimed()) {
+                    state.put("remainingMillis", session.getRemainingNanos() / 1_000_000);
+                }
+                Map<String, Object> question = new LinkedHashMap<>();
+                question.put("text", session.getCurrentQuestion().getQuestionText());
+                question.put("type", session.getCurrentQuestion().getType());
+                question.put("choices", session.getChoices());
+                state.put("question", question);
+            }
+        }
+        return state;
+    }
+
+    // Query of the request parameters, missing ones mean "any" and 10 questions.
+    static QuestionQuery query(URI uri) {
+        Map<String, String> parameters = parameters(uri);
+        int amount = Integer.parseInt(parameters.getOrDefault("amount", "10"));
+        int category = Integer.parseInt(parameters.getOrDefault("category", "0"));
+        if (amount < 1 || amount > 50) {
+            throw new IllegalArgumentException("amount must be between 1 and 50");
+        }
+        return new QuestionQuery(amount, category, parameters.get("difficulty"), parameters.get("type"));
+    }
+
+    // Seconds to answer every question of the request, 0 (the default) for no limit.
+    static int timeLimitSeconds(URI uri) {
+        int seconds = Integer.parseInt(parameters(uri).getOrDefault("timeLimit", "0"));
+        if (seconds < 0 || seconds > 300) {
+            throw new IllegalArgumentException("timeLimit must be between 0 and 300 seconds");
+        }
+        return seconds;
+    }
+
+    private static Map<String, String> parameters(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    // Virtual thread per task when the JVM has them (Java 21+), else a cached thread pool.
+    private static ExecutorService threadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void removeIdleSessions() {
+        long oldest = System.currentTimeMillis() - SESSION_IDLE_MILLIS;
+        sessions.values().removeIf(entry -> entry.lastAccess < oldest);
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        send(exchange, status, error);
+    }
+
+    // A session, who plays it with which options and when it was last used.
+    private static class Entry {
+        private final QuizSession session;
+        private final QuestionQuery query;
+        private final int timeLimitSeconds;
+        private final String player;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Entry(QuizSession session, QuestionQuery query, int timeLimitSeconds, String player) {
+            this.session = session;
+            this.query = query;
+            this.timeLimitSeconds = timeLimitSeconds;
+            this.player = player;
+        }
+    }
+
+    // java gr.unipi.quizgame.QuizServer [port]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Leaderboard leaderboard = Leaderboard.openDefault();
+        QuizServer server = new QuizServer(port, QuizSession.createQuestionSource(), leaderboard);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            try {
+                leaderboard.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        server.start();
+        System.out.println("Quiz server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,116 @@
+package gr.unipi.quizgame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gr.unipi.opentriviaapi.StubQuestionSource;
+
+public class QuizServerTest {
+
+    private QuizServer server;
+    private String baseUri;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Gson gson = new Gson();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Server on an ephemeral port with generated questions.
+        server = new QuizServer(0, new StubQuestionSource());
+        server.start();
+        baseUri = "http://localhost:" + server.getPort() + "/sessions";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Test that a whole game can be played over HTTP")
+    public void testPlayGame() throws Exception {
+        JsonObject state = call("POST", baseUri + "?amount=2&category=9&type=multiple", "", 201);
+        String id = state.get("id").getAsString();
+        assertEquals(2, state.get("questionCount").getAsInt());
+        assertEquals(4, state.getAsJsonObject("question").getAsJsonArray("choices").size());
+
+        JsonObject answer = call("POST", baseUri + "/" + id + "/answer", "{\"answer\": \"Answer 1\"}", 200);
+        assertTrue(answer.get("correct").getAsBoolean());
+        assertEquals(QuizSession.CORRECT_SCORE, answer.get("score").getAsInt());
+
+        answer = call("POST", baseUri + "/" + id + "/answer", "{\"answer\": \"Wrong A\"}", 200);
+        assertFalse(answer.get("correct").getAsBoolean());
+        assertEquals("Answer 2", answer.get("correctAnswer").getAsString());
+        assertTrue(answer.get("finished").getAsBoolean());
+        assertEquals(50, answer.get("successRate").getAsInt());
+
+        call("POST", baseUri + "/" + id + "/answer", "{\"answer\": \"Answer 3\"}", 409);
+        assertEquals(1, server.getSessionCount());
+        call("DELETE", baseUri + "/" + id, "", 204);
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Test that finished games are recorded on the leaderboard")
+    public void testLeaderboard() throws Exception {
+        JsonObject state = call("POST", baseUri + "?amount=1&category=9&player=alice", "", 201);
+        call("POST", baseUri + "/" + state.get("id").getAsString() + "/answer", "{\"answer\": \"Answer 1\"}", 200);
+
+        String leaderboardUri = "http://localhost:" + server.getPort() + "/leaderboard";
+        JsonObject leaderboard = call("GET", leaderboardUri + "?amount=1&category=9", "", 200);
+        assertEquals(1, leaderboard.get("games").getAsInt());
+        JsonObject best = leaderboard.getAsJsonArray("scores").get(0).getAsJsonObject();
+        assertEquals("alice", best.get("player").getAsString());
+        assertEquals(QuizSession.CORRECT_SCORE, best.get("score").getAsInt());
+
+        // Other options have no games yet.
+        leaderboard = call("GET", leaderboardUri + "?amount=2&category=9", "", 200);
+        assertEquals(0, leaderboard.getAsJsonArray("scores").size());
+    }
+
+    @Test
+    @DisplayName("Test that a timed game reports the time left and the points of every answer")
+    public void testTimedGame() throws Exception {
+        JsonObject state = call("POST", baseUri + "?amount=1&category=9&timeLimit=30&player=bob", "", 201);
+        assertTrue(state.get("remainingMillis").getAsLong() <= 30_000);
+        JsonObject answer = call("POST", baseUri + "/" + state.get("id").getAsString() + "/answer", "{\"answer\": \"Answer 1\"}", 200);
+        assertTrue(answer.get("points").getAsInt() > QuizSession.CORRECT_SCORE);
+        assertTrue(answer.get("responseMillis").getAsLong() >= 0);
+
+        // Timed games are not mixed with untimed ones on the leaderboard.
+        String leaderboardUri = "http://localhost:" + server.getPort() + "/leaderboard?amount=1&category=9";
+        assertEquals(0, call("GET", leaderboardUri, "", 200).get("games").getAsInt());
+        assertEquals(1, call("GET", leaderboardUri + "&timeLimit=30", "", 200).get("games").getAsInt());
+        call("POST", baseUri + "?timeLimit=-1", "", 400);
+    }
+
+    @Test
+    @DisplayName("Test that bad requests and unknown sessions are rejected")
+    public void testErrors() throws Exception {
+        call("POST", baseUri + "?amount=100", "", 400);
+        call("GET", baseUri + "/unknown", "", 404);
+        JsonObject state = call("POST", baseUri, "", 201);
+        call("POST", baseUri + "/" + state.get("id").getAsString() + "/answer", "not json", 400);
+    }
+
+    // Send a request, check the status and return the JSON body, null if there is none.
+    private JsonObject call(String method, String uri, String body, int expectedStatus) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(expectedStatus, response.statusCode(), response.body());
+        return response.body().isEmpty() ? null : gson.fromJson(response.body(), JsonObject.class);
+    }
+}
@@ -0,0 +1,295 @@
+package gr.unipi.quizgame;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+//imports the api developed as library jar
+import gr.unipi.opentriviaapi.LiveQuestionSource;
+import gr.unipi.opentriviaapi.QuestionCache;
+import gr.unipi.opentriviaapi.QuestionQuery;
+import gr.unipi.opentriviaapi.QuestionSource;
+import gr.unipi.opentriviaapi.QuestionStore;
+import gr.unipi.opentriviaapi.TieredQuestionSource;
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+
+// One game of the quiz without any user interface: the questions, the current question,
+// the score and the number of correct answers. Used by the Swing app and by the QuizServer.
+// All methods are synchronized, so a session can be answered from any thread.
+//
+// The session times every answer from the moment its question became current (or from the last
+// startQuestion() call, e.g. once the question is on screen). In a timed game every question has a
+// time limit: an answer after it counts as no answer, and a correct answer earns a speed bonus of up
+// to MAX_SPEED_BONUS points, in proportion to the time that was left.
+public final class QuizSession {
+
+    // Scoring rules
+    public static final int CORRECT_SCORE = 10;
+    public static final int WRONG_SCORE = -5;
+    public static final int MAX_SPEED_BONUS = 5;
+
+    private final List<Question> questions;
+    private final long timeLimitNanos; // 0 if the game is not timed
+    private int currentQuestionIndex = 0;
+    private int score = 0;
+    private int correctCount = 0;
+    private int lastPoints = 0;
+    // When the current question started, and how long every answered question took.
+    private long questionStart;
+    private final long[] responseNanos;
+    // Order the choices of the current question are shown in: order[i] is the index in
+    // Question.getChoices() of the i-th choice shown. Reused for every question.
+    private int[] order = new int[4];
+    private int choiceCount;
+
+    public QuizSession(List<Question> questions) {
+        this(questions, null);
+    }
+
+    // Timed game, timeLimit is the time of every question, null for no limit.
+    public QuizSession(List<Question> questions, Duration timeLimit) {
+        this.questions = Collections.unmodifiableList(new ArrayList<>(questions));
+        this.timeLimitNanos = timeLimit == null ? 0 : timeLimit.toNanos();
+        if (timeLimitNanos < 0) {
+            throw new IllegalArgumentException("Negative time limit: " + timeLimit);
+        }
+        this.responseNanos = new long[this.questions.size()];
+        shuffleChoices();
+        questionStart = System.nanoTime();
+    }
+
+    // Build the chain of question sources shared by all games: question pools in memory (kept for
+    // 30 minutes), then the offline question bank if the "quizgame.store" system property names its
+    // directory, then the API.
+    public static TieredQuestionSource createQuestionSource() {
+        TieredQuestionSource.Builder builder = TieredQuestionSource.builder()
+                .tier("memory", new QuestionCache(64, Duration.ofMinutes(30), QuestionCache.DEFAULT_POOL_SIZE));
+        String directory = System.getProperty("quizgame.store");
+        if (directory != null) {
+            try {
+                builder.tier("disk", QuestionStore.open(Paths.get(directory)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return builder.tier("network", new LiveQuestionSource()).build();
+    }
+
+    // Fetch the questions of a game from the source.
+    // The returned future completes with null if the source has no questions for the query,
+    // and exceptionally if the questions could not be fetched.
+    public static CompletableFuture<List<Question>> fetchQuestions(QuestionSource source, QuestionQuery query) {
+        return source.fetchAsync(query).thenApply(response -> {
+            // Check if the response code indicates success (0 means success)
+            if (response == null || response.getResponseCode() != 0) {
+                return null;
+            }
+            List<Question> questionsList = new ArrayList<>();
+            // The text of the questions is already decoded by the library.
+            for (DataQuestion dq : response.getResults()) {
+                questionsList.add(new Question(dq.getQuestion(), dq.getCorrectAnswer(),
+                        Arrays.asList(dq.getIncorrectAnswers()), dq.getType()));
+            }
+            return questionsList;
+        });
+    }
+
+    // The question to answer, null once the game is over.
+    public synchronized Question getCurrentQuestion() {
+        return isFinished() ? null : questions.get(currentQuestionIndex);
+    }
+
+    // The choices of the current question, shuffled so the correct answer isn't always in the same place.
+    public synchronized List<String> getChoices() {
+        List<String> choices = new ArrayList<>(choiceCount);
+        for (int i = 0; i < choiceCount; i++) {
+            choices.add(getChoice(i));
+        }
+        return choices;
+    }
+
+    // Number of choices of the current question, 0 once the game is over.
+    public synchronized int getChoiceCount() {
+        return choiceCount;
+    }
+
+    // The i-th choice of the current question as shown, without building a list of them.
+    public synchronized String getChoice(int i) {
+        if (i < 0 || i >= choiceCount) {
+            throw new IndexOutOfBoundsException("Choice " + i + " of " + choiceCount);
+        }
+        return questions.get(currentQuestionIndex).getChoices().get(order[i]);
+    }
+
+    // Restart the clock of the current question, e.g. when it is actually shown to the player.
+    public synchronized void startQuestion() {
+        questionStart = System.nanoTime();
+    }
+
+    // Answer the current question and move to the next one, returns whether the answer was correct.
+    // In a timed game an answer after the time limit is not correct, whatever was selected.
+    public synchronized boolean answer(String selected) {
+        if (isFinished()) {
+            throw new IllegalStateException("The game is over");
+        }
+        long elapsed = System.nanoTime() - questionStart;
+        boolean inTime = timeLimitNanos == 0 || elapsed < timeLimitNanos;
+        return record(inTime && questions.get(currentQuestionIndex).getCorrectAnswer().equals(selected),
+                inTime ? elapsed : timeLimitNanos);
+    }
+
+    // The time of the current question ran out without an answer, move to the next one.
+    public synchronized void timeOut() {
+        if (isFinished()) {
+            throw new IllegalStateException("The game is over");
+        }
+        record(false, timeLimitNanos == 0 ? System.nanoTime() - questionStart : timeLimitNanos);
+    }
+
+    private boolean record(boolean correct, long elapsed) {
+        if (correct) {
+            // Speed bonus in proportion to the time left, nothing in a game without a time limit.
+            lastPoints = CORRECT_SCORE
+                    + (timeLimitNanos == 0 ? 0 : (int) (MAX_SPEED_BONUS * (timeLimitNanos - elapsed) / timeLimitNanos));
+            correctCount++;
+        } else {
+            lastPoints = WRONG_SCORE;
+        }
+        score += lastPoints;
+        responseNanos[currentQuestionIndex] = elapsed;
+        currentQuestionIndex++;
+        shuffleChoices();
+        questionStart = System.nanoTime();
+        return correct;
+    }
+
+    public synchronized boolean isTimed() {
+        return timeLimitNanos != 0;
+    }
+
+    // Time left to answer the current question, Long.MAX_VALUE in a game without a time limit.
+    public synchronized long getRemainingNanos() {
+        if (timeLimitNanos == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, timeLimitNanos - (System.nanoTime() - questionStart));
+    }
+
+    // Points the last answer earned (or lost), speed bonus included.
+    public synchronized int getLastPoints() {
+        return lastPoints;
+    }
+
+    // How long the player took to answer the question, the time limit if it ran out, -1 if it is not answered yet.
+    public synchronized long getResponseNanos(int question) {
+        return question < currentQuestionIndex ? responseNanos[question] : -1;
+    }
+
+    // Average time of the answered questions in milliseconds, 0 before the first answer.
+    public synchronized long getAverageResponseMillis() {
+        if (currentQuestionIndex == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < currentQuestionIndex; i++) {
+            total += responseNanos[i];
+        }
+        return total / currentQuestionIndex / 1_000_000;
+    }
+
+    public synchronized boolean isFinished() {
+        return currentQuestionIndex >= questions.size();
+    }
+
+    // 0-based index of the current question, the number of questions once the game is over.
+    public synchronized int getCurrentQuestionIndex() {
+        return currentQuestionIndex;
+    }
+
+    public int getQuestionCount() {
+        return questions.size();
+    }
+
+    public synchronized int getScore() {
+        return score;
+    }
+
+    public synchronized int getCorrectCount() {
+        return correctCount;
+    }
+
+    // Percentage of correct answers out of all the questions of the game.
+    public synchronized int getSuccessRate() {
+        return questions.isEmpty() ? 0 : (int) (((double) correctCount / questions.size()) * 100);
+    }
+
+    // Fisher-Yates shuffle of the indexes of the current question's choices.
+    private void shuffleChoices() {
+        choiceCount = isFinished() ? 0 : questions.get(currentQuestionIndex).getChoices().size();
+        if (order.length < choiceCount) {
+            order = new int[choiceCount];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < choiceCount; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+    }
+
+    // Class representing a quiz question.
+    public static class Question {
+        private static final List<String> BOOLEAN_CHOICES = Collections.unmodifiableList(Arrays.asList("True", "False"));
+
+        private final String questionText;
+        private final String correctAnswer;
+        private final List<String> incorrectAnswers;
+        private final String type; // "multiple" or "boolean"
+        private final List<String> choices;
+
+        public Question(String questionText, String correctAnswer, List<String> incorrectAnswers, String type) {
+            this.questionText = questionText;
+            this.correctAnswer = correctAnswer;
+            this.incorrectAnswers = Collections.unmodifiableList(new ArrayList<>(incorrectAnswers));
+            this.type = type;
+            this.choices = choices(correctAnswer, this.incorrectAnswers, type);
+        }
+
+        public String getQuestionText() {
+            return questionText;
+        }
+
+        public String getCorrectAnswer() {
+            return correctAnswer;
+        }
+
+        public List<String> getIncorrectAnswers() {
+            return incorrectAnswers;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        // All the answers, correct first. A boolean question always offers "True" and "False".
+        public List<String> getChoices() {
+            return choices;
+        }
+
+        private static List<String> choices(String correctAnswer, List<String> incorrectAnswers, String type) {
+            if (type.equalsIgnoreCase("boolean")) {
+                return BOOLEAN_CHOICES;
+            }
+            List<String> choices = new ArrayList<>(incorrectAnswers.size() + 1);
+            choices.add(correctAnswer);
+            choices.addAll(incorrectAnswers);
+            return Collections.unmodifiableList(choices);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package gr.unipi.quizgame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gr.unipi.opentriviaapi.QuestionQuery;
+import gr.unipi.opentriviaapi.StubQuestionSource;
+import gr.unipi.quizgame.QuizSession.Question;
+
+public class QuizSessionTest {
+
+    @Test
+    @DisplayName("Test that a session scores answers and finishes after the last question")
+    public void testScoring() {
+        QuizSession session = new QuizSession(Arrays.asList(
+                new Question("Capital of Greece?", "Athens", Arrays.asList("Sparta", "Thebes", "Corinth"), "multiple"),
+                new Question("The sky is green.", "False", Arrays.asList("True"), "boolean")));
+
+        assertEquals(2, session.getQuestionCount());
+        assertEquals(4, session.getChoices().size());
+        assertTrue(session.getChoices().contains("Athens"));
+        assertTrue(session.answer("Athens"));
+        assertEquals(QuizSession.CORRECT_SCORE, session.getScore());
+
+        // A boolean question always offers True and False.
+        assertEquals(2, session.getChoices().size());
+        assertFalse(session.answer("True"));
+        assertEquals(QuizSession.CORRECT_SCORE + QuizSession.WRONG_SCORE, session.getScore());
+
+        assertTrue(session.isFinished());
+        assertNull(session.getCurrentQuestion());
+        assertEquals(1, session.getCorrectCount());
+        assertEquals(50, session.getSuccessRate());
+        assertThrows(IllegalStateException.class, () -> session.answer("Athens"));
+    }
+
+    @Test
+    @DisplayName("Test that every choice of a question is shown exactly once")
+    public void testChoices() {
+        QuizSession session = new QuizSession(Arrays.asList(
+                new Question("Capital of Greece?", "Athens", Arrays.asList("Sparta", "Thebes", "Corinth"), "multiple"),
+                new Question("The sky is green.", "False", Arrays.asList("True"), "boolean")));
+
+        assertEquals(4, session.getChoiceCount());
+        List<String> shown = new ArrayList<>();
+        for (int i = 0; i < session.getChoiceCount(); i++) {
+            shown.add(session.getChoice(i));
+        }
+        assertEquals(session.getChoices(), shown);
+        Collections.sort(shown);
+        assertEquals(Arrays.asList("Athens", "Corinth", "Sparta", "Thebes"), shown);
+        assertThrows(IndexOutOfBoundsException.class, () -> session.getChoice(4));
+
+        session.answer("Athens");
+        assertEquals(2, session.getChoiceCount());
+        session.answer("False");
+        assertEquals(0, session.getChoiceCount());
+    }
+
+    @Test
+    @DisplayName("Test that timed answers earn a speed bonus and late answers count as wrong")
+    public void testTimedAnswers() throws Exception {
+        List<Question> questions = Arrays.asList(
+                new Question("Q1", "A", Arrays.asList("B"), "multiple"),
+                new Question("Q2", "A", Arrays.asList("B"), "multiple"),
+                new Question("Q3", "A", Arrays.asList("B"), "multiple"));
+        QuizSession session = new QuizSession(questions, Duration.ofSeconds(60));
+        assertTrue(session.isTimed());
+        assertTrue(session.getRemainingNanos() <= Duration.ofSeconds(60).toNanos());
+
+        // An immediate correct answer earns (almost) the whole bonus.
+        session.startQuestion();
+        assertTrue(session.answer("A"));
+        assertEquals(QuizSession.CORRECT_SCORE + QuizSession.MAX_SPEED_BONUS - 1, session.getLastPoints(), 1);
+        assertTrue(session.getResponseNanos(0) >= 0);
+        assertEquals(-1, session.getResponseNanos(1));
+
+        session.timeOut();
+        assertEquals(QuizSession.WRONG_SCORE, session.getLastPoints());
+        assertEquals(Duration.ofSeconds(60).toNanos(), session.getResponseNanos(1));
+        assertEquals(1, session.getCorrectCount());
+
+        // The right answer after the time limit is not correct.
+        QuizSession late = new QuizSession(questions, Duration.ofMillis(20));
+        Thread.sleep(50);
+        assertEquals(0, late.getRemainingNanos());
+        assertFalse(late.answer("A"));
+        assertEquals(QuizSession.WRONG_SCORE, late.getScore());
+        assertEquals(Duration.ofMillis(20).toNanos(), late.getResponseNanos(0));
+    }
+
+    @Test
+    @DisplayName("Test that an untimed game has no speed bonus and records response times")
+    public void testUntimedResponseTimes() throws Exception {
+        QuizSession session = new QuizSession(Arrays.asList(new Question("Q1", "A", Arrays.asList("B"), "multiple")));
+        assertFalse(session.isTimed());
+        assertEquals(Long.MAX_VALUE, session.getRemainingNanos());
+        assertEquals(0, session.getAverageResponseMillis());
+        Thread.sleep(20);
+        assertTrue(session.answer("A"));
+        assertEquals(QuizSession.CORRECT_SCORE, session.getLastPoints());
+        assertTrue(session.getAverageResponseMillis() >= 20);
+    }
+
+    @Test
+    @DisplayName("Test that questions are fetched from a question source without any user interface")
+    public void testFetchQuestions() {
+        List<Question> questions = QuizSession.fetchQuestions(new StubQuestionSource(),
+                new QuestionQuery(3, 9, "easy", "multiple")).join();
+        assertEquals(3, questions.size());
+        assertEquals("Answer 1", questions.get(0).getCorrectAnswer());
+
+        // No questions for the options.
+        assertNull(QuizSession.fetchQuestions(new StubQuestionSource(2), new QuestionQuery(3, 9, "", "")).join());
+    }
+}
@@ -0,0 +1,11 @@
+package gr.unipi.opentriviaapi;
+
+//the api kept answering with response code 5 (too many requests) after every retry
+public class RateLimitException extends TriviaApiException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RateLimitException(String message) {
+		super(message);
+	}
+}
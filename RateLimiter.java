@@ -0,0 +1,79 @@
+package gr.unipi.opentriviaapi;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//token bucket rate limiter, lock free and safe to share between threads
+//the bucket holds up to burst permits and gets a new one every interval
+//implemented as the equivalent "theoretical arrival time" algorithm, so it is a single AtomicLong
+public class RateLimiter {
+
+	//limiters shared by every Client, one per api host
+	private static final Map<String, RateLimiter> SHARED = new ConcurrentHashMap<>();
+
+	//limiter that never waits
+	private static final RateLimiter UNLIMITED = new RateLimiter(1, Duration.ZERO);
+
+	static {
+		//the public api accepts one request every 5 seconds from each ip
+		SHARED.put("opentdb.com", new RateLimiter(1, Duration.ofSeconds(5)));
+	}
+
+	private final long intervalNanos;
+	private final long burstNanos;
+
+	//the time at which the bucket would be full again, relative to the origin below
+	private final AtomicLong fullAt;
+	private final long origin = System.nanoTime();
+
+	public RateLimiter(int burst, Duration interval) {
+		if (burst < 1 || interval.isNegative()) {
+			throw new IllegalArgumentException("burst must be positive and interval not negative");
+		}
+		this.intervalNanos = interval.toNanos();
+		this.burstNanos = intervalNanos * burst;
+		this.fullAt = new AtomicLong(0);
+	}
+
+	//the limiter shared by every Client that talks to this host, unlimited if none was registered
+	public static RateLimiter forHost(String host) {
+		RateLimiter limiter = host == null ? null : SHARED.get(host);
+		return limiter != null ? limiter : UNLIMITED;
+	}
+
+	//replaces the limiter shared by every Client that talks to this host
+	public static void register(String host, RateLimiter limiter) {
+		SHARED.put(host, limiter);
+	}
+
+	public static RateLimiter unlimited() {
+		return UNLIMITED;
+	}
+
+	//takes a permit and returns how many nanoseconds the caller has to wait before using it
+	//never blocks, so it can be used to schedule asynchronous requests
+	public long reserve() {
+		if (intervalNanos == 0) {
+			return 0;
+		}
+		long now = System.nanoTime() - origin;
+		while (true) {
+			long current = fullAt.get();
+			long next = Math.max(current, now) + intervalNanos;
+			if (fullAt.compareAndSet(current, next)) {
+				return Math.max(0, next - burstNanos - now);
+			}
+		}
+	}
+
+	//takes a permit, blocking until it may be used
+	public void acquire() throws InterruptedException {
+		long wait = reserve();
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+//immutable description of how a Client repeats failed requests
+//failed requests wait with exponential backoff and jitter, or as long as the Retry-After header asks,
+//requests answered with response code 5 (rate limit) wait for the rate limit window of the api instead
+public class RetryPolicy {
+
+	private static final RetryPolicy DEFAULTS =
+			new RetryPolicy(4, Duration.ofMillis(500), Duration.ofSeconds(30), 0.5, Duration.ofSeconds(5));
+
+	private static final RetryPolicy NONE =
+			new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 0, Duration.ZERO);
+
+	private final int maxAttempts;
+	private final long baseDelayNanos;
+	private final long maxDelayNanos;
+	private final double jitter;
+	private final long rateLimitDelayNanos;
+
+	//maxAttempts counts the first request too, jitter is the random part of every delay (0 to 1)
+	public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay, double jitter, Duration rateLimitDelay) {
+		if (maxAttempts < 1 || jitter < 0 || jitter > 1) {
+			throw new IllegalArgumentException("maxAttempts must be positive and jitter between 0 and 1");
+		}
+		this.maxAttempts = maxAttempts;
+		this.baseDelayNanos = baseDelay.toNanos();
+		this.maxDelayNanos = maxDelay.toNanos();
+		this.jitter = jitter;
+		this.rateLimitDelayNanos = rateLimitDelay.toNanos();
+	}
+
+	//4 attempts, 0.5 to 30 seconds of backoff with 50% jitter, 5 seconds after a rate limit response
+	public static RetryPolicy defaults() {
+		return DEFAULTS;
+	}
+
+	//a single attempt, failures are reported immediately
+	public static RetryPolicy none() {
+		return NONE;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	//network failures, throttling (429) and temporary server errors (5xx) are worth another attempt
+	public boolean isRetryable(IOException failure) {
+		if (failure instanceof HttpStatusException) {
+			int status = ((HttpStatusException) failure).getStatusCode();
+			return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+		}
+		return !(failure instanceof TriviaApiException);
+	}
+
+	//delay before the attempt after the given (1 based) failed attempt
+	//a Retry-After value from the server wins over the backoff, but never exceeds the maximum delay
+	public long delayNanos(int attempt, Duration retryAfter) {
+		if (retryAfter != null) {
+			return Math.min(retryAfter.toNanos(), maxDelayNanos);
+		}
+		long delay = baseDelayNanos << Math.min(attempt - 1, 30);
+		if (delay < 0 || delay > maxDelayNanos) {
+			delay = maxDelayNanos;
+		}
+		return withJitter(delay);
+	}
+
+	//delay after the api answered with response code 5
+	//the whole rate limit window is always waited, the jitter is added on top of it
+	public long rateLimitDelayNanos() {
+		return rateLimitDelayNanos + (long) (ThreadLocalRandom.current().nextDouble() * jitter * rateLimitDelayNanos);
+	}
+
+	//keeps (1 - jitter) of the delay and randomizes the rest, so clients that failed together do not retry together
+	private long withJitter(long delay) {
+		if (jitter == 0 || delay == 0) {
+			return delay;
+		}
+		long fixed = (long) (delay * (1 - jitter));
+		return fixed + (long) (ThreadLocalRandom.current().nextDouble() * (delay - fixed));
+	}
+}
@@ -0,0 +1,176 @@
+package gr.unipi.opentriviaapi;
+
+//import libraries for http and api actions
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+//import libraries for asynchronous requests
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+//import external libraries for json handling and deserialization
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+//session token of the api
+//the api never returns the same question twice to requests carrying the same token,
+//until the token is reset or expires (after 6 hours without use)
+//one token can be shared by many clients, it is requested lazily on first use
+public class SessionToken {
+
+	//the url for requesting and resetting tokens
+	private static final String DEFAULT_TOKEN_URI = "https://opentdb.com/api_token.php";
+
+	private final String tokenUri;
+	private final HttpClient httpClient;
+	private final Gson gson = new Gson();
+
+	private volatile String token;
+	
+	//the pending request of getAsync, so concurrent callers share one token
+	private CompletableFuture<String> firstRequest;
+
+	public SessionToken() {
+		this(DEFAULT_TOKEN_URI);
+	}
+
+	//tokenUri is the token endpoint, e.g. a local server for testing
+	public SessionToken(String tokenUri) {
+		this.tokenUri = tokenUri;
+		this.httpClient = Client.sharedHttpClient();
+	}
+
+	//returns the current token, requesting one first if there is none yet
+	public String get() throws IOException, InterruptedException {
+		String current = token;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (token == null) {
+				request();
+			}
+			return token;
+		}
+	}
+
+	//asynchronous version of get, never blocks the calling thread
+	public CompletableFuture<String> getAsync() {
+		String current = token;
+		if (current != null) {
+			return CompletableFuture.completedFuture(current);
+		}
+		synchronized (this) {
+			if (token != null) {
+				return CompletableFuture.completedFuture(token);
+			}
+			if (firstRequest == null) {
+				CompletableFuture<String> pending = requestAsync();
+				firstRequest = pending;
+				//a failed request is not kept, the next caller tries again
+				pending.whenComplete((t, e) -> {
+					synchronized (this) {
+						if (firstRequest == pending) {
+							firstRequest = null;
+						}
+					}
+				});
+			}
+			return firstRequest;
+		}
+	}
+	
+	//returns the current token without requesting one, null if there is none yet
+	public String peek() {
+		return token;
+	}
+
+	//requests a new token from the api, replacing the current one
+	public synchronized void request() throws IOException, InterruptedException {
+		token = call(tokenUri + "?command=request");
+	}
+
+	//asynchronous version of request
+	public CompletableFuture<String> requestAsync() {
+		return callAsync(tokenUri + "?command=request").thenApply(t -> token = t);
+	}
+	
+	//resets the current token, so every question can be returned again
+	//if there is no token yet a new one is requested instead
+	public synchronized void reset() throws IOException, InterruptedException {
+		if (token == null) {
+			request();
+			return;
+		}
+		token = call(tokenUri + "?command=reset&token=" + token);
+	}
+
+	//asynchronous version of reset
+	public CompletableFuture<String> resetAsync() {
+		String current = token;
+		if (current == null) {
+			return requestAsync();
+		}
+		return callAsync(tokenUri + "?command=reset&token=" + current).thenApply(t -> token = t);
+	}
+
+	//sends a command to the token endpoint and returns the token of the answer
+	private String call(String uri) throws IOException, InterruptedException {
+		//token requests count against the rate limit of the api as well
+		RateLimiter.forHost(URI.create(uri).getHost()).acquire();
+		
+		HttpResponse<String> res = httpClient.send(tokenRequest(uri), HttpResponse.BodyHandlers.ofString());
+		return parse(res);
+	}
+	
+	//same as call, waiting for the rate limiter without blocking a thread
+	private CompletableFuture<String> callAsync(String uri) {
+		long wait = RateLimiter.forHost(URI.create(uri).getHost()).reserve();
+		CompletableFuture<Void> turn = wait > 0
+				? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS))
+				: CompletableFuture.completedFuture(null);
+		
+		return turn.thenCompose(v -> httpClient.sendAsync(tokenRequest(uri), HttpResponse.BodyHandlers.ofString()))
+				.thenApply(res -> {
+					try {
+						return parse(res);
+					} catch (IOException e) {
+						throw new CompletionException(e);
+					}
+				});
+	}
+	
+	private static HttpRequest tokenRequest(String uri) {
+		return HttpRequest.newBuilder()
+				.uri(URI.create(uri))
+				.GET()
+				.build();
+	}
+	
+	//checks the status code and returns the token of the answer
+	private String parse(HttpResponse<String> res) throws IOException {
+		if(res.statusCode() != 200) {
+			throw new HttpStatusException(res.statusCode(), Client.retryAfter(res));
+		}
+
+		TokenResponse tokenResponse = gson.fromJson(res.body(), TokenResponse.class);
+		if (tokenResponse.responseCode != Client.RESPONSE_SUCCESS || tokenResponse.token == null) {
+			throw new TriviaApiException("Could not get session token. Response code: " + tokenResponse.responseCode);
+		}
+		return tokenResponse.token;
+	}
+
+	//deserialization class for the token endpoint
+	private static class TokenResponse {
+
+		@SerializedName("response_code")
+		private int responseCode;
+
+		@SerializedName("token")
+		private String token;
+	}
+}
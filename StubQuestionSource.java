@@ -0,0 +1,42 @@
+package gr.unipi.opentriviaapi;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//deterministic question source for tests and benchmarks, never touches the network
+//every query is answered with generated questions that only depend on the query
+public class StubQuestionSource implements QuestionSource {
+
+	private final int questionsPerQuery;
+
+	//answers any amount of questions
+	public StubQuestionSource() {
+		this(Integer.MAX_VALUE);
+	}
+
+	//answers "no results" when a query asks for more than questionsPerQuery questions, like a small category
+	public StubQuestionSource(int questionsPerQuery) {
+		this.questionsPerQuery = questionsPerQuery;
+	}
+
+	@Override
+	public DataResponse fetch(QuestionQuery query) {
+		if (query.getAmount() > questionsPerQuery) {
+			return new DataResponse(Client.RESPONSE_NO_RESULTS, new DataQuestion[0]);
+		}
+		String difficulty = query.getDifficulty().isEmpty() ? "easy" : query.getDifficulty();
+		DataQuestion[] questions = new DataQuestion[query.getAmount()];
+		for (int i = 0; i < questions.length; i++) {
+			String type = query.getType().isEmpty() ? (i % 2 == 0 ? "multiple" : "boolean") : query.getType();
+			String question = "Question " + (i + 1) + " of category " + query.getCategory() + " (" + difficulty + ")";
+			if (type.equals("boolean")) {
+				questions[i] = new DataQuestion("Category " + query.getCategory(), type, difficulty, question,
+						"True", new String[]{"False"});
+			} else {
+				questions[i] = new DataQuestion("Category " + query.getCategory(), type, difficulty, question,
+						"Answer " + (i + 1), new String[]{"Wrong A", "Wrong B", "Wrong C"});
+			}
+		}
+		return new DataResponse(Client.RESPONSE_SUCCESS, questions);
+	}
+}
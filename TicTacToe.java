@@ -1,23 +1,44 @@
+package gr.unipi.tictactoe;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class TicTacToe {
-    // The game board is a 3x3 char array
-    private static char[][] board = new char[3][3];
-    // The current player ('X' or 'O')
-    private static char currentPlayer = 'X';
-
-    public static void main(String[] args) {
-        // Initialize the game board with empty spaces
-        initializeBoard();
-        // Flag to check if the game has ended
-        boolean gameEnded = false;
+    // Start with --computer to play X against the computer, and with --ansi for a colored board
+    // The computer's table is read from the file named by -Dtictactoe.table (written there if missing),
+    // or generated at start when the property is not set
+    public static void main(String[] args) throws IOException {
+        // The computer plays O when asked for
+        TicTacToeTable computer = null;
+        // Draws the board after every move
+        TicTacToeRenderer renderer = TicTacToeRenderer.console(System.out);
+        for (String arg : args) {
+            if (arg.equals("--computer")) {
+                String file = System.getProperty("tictactoe.table");
+                computer = file != null ? TicTacToeTable.loadOrGenerate(Paths.get(file)) : TicTacToeTable.generate();
+            } else if (arg.equals("--ansi")) {
+                renderer = TicTacToeRenderer.ansi(System.out);
+            }
+        }
+        // The game, empty board with X to play
+        TicTacToeGame game = TicTacToeGame.initial();
         // Create a Scanner to read user input
         Scanner scanner = new Scanner(System.in);
 
         // Main game loop
-        while (!gameEnded) {
-            printBoard();
-            System.out.println("Player " + currentPlayer + ", enter your move (row [1-3] and column [1-3]):");
+        while (!game.isOver()) {
+            renderer.render(game);
+
+            // The computer answers without asking
+            if (computer != null && game.getCurrentPlayer() == 'O') {
+                int move = computer.bestMove(game);
+                System.out.println("Computer plays row " + (move / 3 + 1) + ", column " + (move % 3 + 1));
+                game = game.play(move);
+                continue;
+            }
+
+            System.out.println("Player " + game.getCurrentPlayer() + ", enter your move (row [1-3] and column [1-3]):");
 
             // Read user input. Subtract 1 to convert to 0-indexed array.
             int row = scanner.nextInt() - 1;
@@ -28,100 +49,21 @@ public class TicTacToe {
                 System.out.println("This move is out of bounds. Please try again.");
                 continue;
             }
-            if (board[row][col] != ' ') {
+            if (!game.isLegal(TicTacToeEngine.cell(row, col))) {
                 System.out.println("This cell is already occupied. Please try again.");
                 continue;
             }
 
-            // Make the move
-            board[row][col] = currentPlayer;
-
-            // Check for a winner after the move
-            if (checkWinner()) {
-                printBoard();
-                System.out.println("Player " + currentPlayer + " wins!");
-                gameEnded = true;
-            } 
-            // Check for a tie (board is full)
-            else if (isBoardFull()) {
-                printBoard();
-                System.out.println("The game is a tie!");
-                gameEnded = true;
-            } 
-            // Switch players
-            else {
-                currentPlayer = (currentPlayer == 'X') ? 'O' : 'X';
-            }
-        }
-        scanner.close();
-    }
-
-    // Initialize the board with spaces
-    private static void initializeBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = ' ';
-            }
+            // Make the move, the next player is to play in the new state
+            game = game.play(TicTacToeEngine.cell(row, col));
         }
-    }
 
-    // Print the current game board
-    private static void printBoard() {
-        System.out.println("-------------");
-        for (int i = 0; i < 3; i++) {
-            System.out.print("| ");
-            for (int j = 0; j < 3; j++) {
-                System.out.print(board[i][j] + " | ");
-            }
-            System.out.println();
-            System.out.println("-------------");
+        renderer.render(game);
+        if (game.getResult() == TicTacToeGame.DRAW) {
+            System.out.println("The game is a tie!");
+        } else {
+            System.out.println("Player " + game.getResult() + " wins!");
         }
-    }
-
-    // Check whether the current player has won the game
-    private static boolean checkWinner() {
-        // Check rows for a win
-        for (int i = 0; i < 3; i++) {
-            if (board[i][0] != ' ' &&
-                board[i][0] == board[i][1] &&
-                board[i][1] == board[i][2]) {
-                return true;
-            }
-        }
-
-        // Check columns for a win
-        for (int j = 0; j < 3; j++) {
-            if (board[0][j] != ' ' &&
-                board[0][j] == board[1][j] &&
-                board[1][j] == board[2][j]) {
-                return true;
-            }
-        }
-
-        // Check the two diagonals
-        if (board[0][0] != ' ' &&
-            board[0][0] == board[1][1] &&
-            board[1][1] == board[2][2]) {
-            return true;
-        }
-        if (board[0][2] != ' ' &&
-            board[0][2] == board[1][1] &&
-            board[1][1] == board[2][0]) {
-            return true;
-        }
-
-        return false;
-    }
-
-    // Check if the board is full (tie condition)
-    private static boolean isBoardFull() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == ' ') {
-                    return false;
-                }
-            }
-        }
-        return true;
+        scanner.close();
     }
 }
@@ -0,0 +1,10 @@
+package gr.unipi.tictactoe;
+
+// Read-only view of a square TicTacToe board, what a TicTacToeRenderer draws
+public interface TicTacToeBoard {
+    // Number of rows, and of columns
+    int getSize();
+
+    // 'X', 'O' or ' ' for the cell (row, col), both 0-indexed
+    char getCell(int row, int col);
+}
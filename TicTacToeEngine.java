@@ -0,0 +1,35 @@
+package gr.unipi.tictactoe;
+
+// Bitboard rules of the 3 x 3 game, shared by TicTacToeGame, the solver and the table.
+// A board is two 9-bit masks, one per player. Cell (row, col) is bit row * 3 + col,
+// so a move is a single OR and a win is one AND against each of the eight line masks.
+public final class TicTacToeEngine {
+    // Number of cells and the mask with all of them set
+    public static final int CELLS = 9;
+    public static final int FULL = (1 << CELLS) - 1;
+
+    // The three rows, the three columns and the two diagonals
+    private static final int[] LINES = {
+        0b000_000_111, 0b000_111_000, 0b111_000_000,
+        0b001_001_001, 0b010_010_010, 0b100_100_100,
+        0b100_010_001, 0b001_010_100
+    };
+
+    private TicTacToeEngine() {
+    }
+
+    // Bit of the cell (row, col), both 0-indexed
+    public static int cell(int row, int col) {
+        return row * 3 + col;
+    }
+
+    // Whether the mask contains a complete row, column or diagonal
+    public static boolean isWin(int mask) {
+        for (int line : LINES) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package gr.unipi.tictactoe;
+
+// Immutable state of one TicTacToe game: the two bitboards of TicTacToeEngine
+// and the moves that led to them. A move never changes a state, applyMove
+// returns the next one, so a state can be shared by any number of threads and
+// thousands of games can be hosted in one process without locks.
+public final class TicTacToeGame implements TicTacToeBoard {
+    // Result of a game
+    public static final char NONE = ' ';
+    public static final char DRAW = 'D';
+
+    // The start of every game
+    private static final TicTacToeGame INITIAL = new TicTacToeGame(0, 0, 0L);
+
+    private final int xMask;
+    private final int oMask;
+    // Cell of every move so far, 4 bits each, the first move in the lowest bits
+    private final long history;
+    // 'X' or 'O' if a player has won, DRAW for a full board, NONE while the game goes on
+    private final char result;
+
+    private TicTacToeGame(int xMask, int oMask, long history) {
+        this.xMask = xMask;
+        this.oMask = oMask;
+        this.history = history;
+        if (TicTacToeEngine.isWin(xMask)) {
+            result = 'X';
+        } else if (TicTacToeEngine.isWin(oMask)) {
+            result = 'O';
+        } else if ((xMask | oMask) == TicTacToeEngine.FULL) {
+            result = DRAW;
+        } else {
+            result = NONE;
+        }
+    }
+
+    // Empty board with X to play
+    public static TicTacToeGame initial() {
+        return INITIAL;
+    }
+
+    // The state after the player to move takes the cell (0-8, see TicTacToeEngine.cell)
+    public static TicTacToeGame applyMove(TicTacToeGame state, int cell) {
+        if (!state.isLegal(cell)) {
+            throw new IllegalArgumentException("Illegal move: " + cell);
+        }
+        int bit = 1 << cell;
+        long history = state.history | ((long) cell << (4 * state.getMoveCount()));
+        return state.getCurrentPlayer() == 'X'
+                ? new TicTacToeGame(state.xMask | bit, state.oMask, history)
+                : new TicTacToeGame(state.xMask, state.oMask | bit, history);
+    }
+
+    // Same as applyMove(this, cell)
+    public TicTacToeGame play(int cell) {
+        return applyMove(this, cell);
+    }
+
+    // The state after playing the cells in order from the start
+    public static TicTacToeGame of(int... cells) {
+        TicTacToeGame state = INITIAL;
+        for (int cell : cells) {
+            state = applyMove(state, cell);
+        }
+        return state;
+    }
+
+    public boolean isLegal(int cell) {
+        return result == NONE && cell >= 0 && cell < TicTacToeEngine.CELLS && ((xMask | oMask) & (1 << cell)) == 0;
+    }
+
+    // Mask of the free cells, empty once the game is over
+    public int getLegalMoves() {
+        return result == NONE ? ~(xMask | oMask) & TicTacToeEngine.FULL : 0;
+    }
+
+    public char getCurrentPlayer() {
+        return (getMoveCount() & 1) == 0 ? 'X' : 'O';
+    }
+
+    public int getXMask() {
+        return xMask;
+    }
+
+    public int getOMask() {
+        return oMask;
+    }
+
+    @Override
+    public int getSize() {
+        return 3;
+    }
+
+    // 'X', 'O' or ' ' for the cell (row, col)
+    @Override
+    public char getCell(int row, int col) {
+        int bit = 1 << TicTacToeEngine.cell(row, col);
+        if ((xMask & bit) != 0) {
+            return 'X';
+        }
+        return (oMask & bit) != 0 ? 'O' : ' ';
+    }
+
+    public int getMoveCount() {
+        return Integer.bitCount(xMask | oMask);
+    }
+
+    // Cell of the n-th move (0-indexed)
+    public int getMove(int n) {
+        if (n < 0 || n >= getMoveCount()) {
+            throw new IndexOutOfBoundsException("Move " + n + " of " + getMoveCount());
+        }
+        return (int) (history >>> (4 * n)) & 0xF;
+    }
+
+    // Cells of all moves in order, a new array every time
+    public int[] getMoves() {
+        int[] moves = new int[getMoveCount()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (int) (history >>> (4 * i)) & 0xF;
+        }
+        return moves;
+    }
+
+    public boolean isOver() {
+        return result != NONE;
+    }
+
+    // 'X', 'O', DRAW, or NONE while the game goes on
+    public char getResult() {
+        return result;
+    }
+
+    // Two states are equal when they have the same moves in the same order
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TicTacToeGame)) {
+            return false;
+        }
+        TicTacToeGame other = (TicTacToeGame) o;
+        return xMask == other.xMask && oMask == other.oMask && history == other.history;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(history) * 31 + (xMask << 9 | oMask);
+    }
+}
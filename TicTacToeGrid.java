@@ -0,0 +1,179 @@
+package gr.unipi.tictactoe;
+
+import java.util.Arrays;
+
+// TicTacToe on an N x N board where K in a row wins, e.g. 3 x 3 with K = 3
+// or 15 x 15 gomoku with K = 5. Only the last move can complete a line, so
+// the win check walks the four lines through it and stops at K in a row:
+// O(K) per move whatever the size of the board.
+// A grid is one game played by one thread, copy() gives another thread its own.
+public class TicTacToeGrid implements TicTacToeBoard {
+    // Directions of the four lines through a cell: row, column and the two diagonals
+    private static final int[] DIRECTION_ROWS = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COLS = {1, 0, 1, -1};
+
+    private static final byte EMPTY = 0;
+    private static final byte X = 1;
+    private static final byte O = 2;
+
+    private final int size;
+    private final int k;
+    // Cell row * size + col holds EMPTY, X or O
+    private final byte[] cells;
+    // Cells in the order they were played
+    private final int[] moves;
+    private int moveCount;
+    // 'X', 'O', TicTacToeGame.DRAW, or TicTacToeGame.NONE while the game goes on
+    private char result = TicTacToeGame.NONE;
+
+    public TicTacToeGrid(int size, int k) {
+        if (size < 1 || k < 1 || k > size) {
+            throw new IllegalArgumentException("Need 1 <= k <= size, got size " + size + " and k " + k);
+        }
+        this.size = size;
+        this.k = k;
+        this.cells = new byte[size * size];
+        this.moves = new int[size * size];
+    }
+
+    private TicTacToeGrid(TicTacToeGrid other) {
+        this.size = other.size;
+        this.k = other.k;
+        this.cells = other.cells.clone();
+        this.moves = other.moves.clone();
+        this.moveCount = other.moveCount;
+        this.result = other.result;
+    }
+
+    // Independent grid in the same state
+    public TicTacToeGrid copy() {
+        return new TicTacToeGrid(this);
+    }
+
+    // Empty board with X to play
+    public void reset() {
+        Arrays.fill(cells, EMPTY);
+        moveCount = 0;
+        result = TicTacToeGame.NONE;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    // Number of cells, size * size
+    public int getCells() {
+        return cells.length;
+    }
+
+    public int cell(int row, int col) {
+        return row * size + col;
+    }
+
+    // 'X', 'O' or ' ' for the cell (row, col)
+    @Override
+    public char getCell(int row, int col) {
+        byte stone = cells[cell(row, col)];
+        return stone == X ? 'X' : stone == O ? 'O' : ' ';
+    }
+
+    public char getCurrentPlayer() {
+        return (moveCount & 1) == 0 ? 'X' : 'O';
+    }
+
+    public boolean isLegal(int cell) {
+        return result == TicTacToeGame.NONE && cell >= 0 && cell < cells.length && cells[cell] == EMPTY;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    // Cell of the last move, -1 before the first one
+    public int getLastMove() {
+        return moveCount == 0 ? -1 : moves[moveCount - 1];
+    }
+
+    public boolean isOver() {
+        return result != TicTacToeGame.NONE;
+    }
+
+    // 'X', 'O', TicTacToeGame.DRAW, or TicTacToeGame.NONE while the game goes on
+    public char getResult() {
+        return result;
+    }
+
+    // Writes the free cells to the array and returns how many there are, 0 once the game is over
+    public int legalMoves(int[] out) {
+        if (result != TicTacToeGame.NONE) {
+            return 0;
+        }
+        int count = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == EMPTY) {
+                out[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    // Places the stone of the player to move and returns true if it wins the game
+    public boolean play(int cell) {
+        if (!isLegal(cell)) {
+            throw new IllegalArgumentException("Illegal move: " + cell);
+        }
+        byte stone = (moveCount & 1) == 0 ? X : O;
+        cells[cell] = stone;
+        moves[moveCount++] = cell;
+        if (completesLine(cell, stone)) {
+            result = stone == X ? 'X' : 'O';
+            return true;
+        }
+        if (moveCount == cells.length) {
+            result = TicTacToeGame.DRAW;
+        }
+        return false;
+    }
+
+    // Takes back the last move
+    public void undo() {
+        if (moveCount == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        cells[moves[--moveCount]] = EMPTY;
+        result = TicTacToeGame.NONE;
+    }
+
+    // Whether one of the four lines through the cell has K stones in a row
+    private boolean completesLine(int cell, byte stone) {
+        int row = cell / size;
+        int col = cell % size;
+        for (int d = 0; d < DIRECTION_ROWS.length; d++) {
+            int dr = DIRECTION_ROWS[d];
+            int dc = DIRECTION_COLS[d];
+            int count = 1 + run(row, col, dr, dc, stone) + run(row, col, -dr, -dc, stone);
+            if (count >= k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Stones of the same player next to (row, col) in one direction, at most K - 1
+    private int run(int row, int col, int dr, int dc, byte stone) {
+        int count = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (count < k - 1 && r >= 0 && r < size && c >= 0 && c < size && cells[r * size + c] == stone) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,190 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeGridTest {
+
+    // Plays the cells, X and O in turn, and checks that only the last move wins
+    private static void playWin(TicTacToeGrid grid, int[][] xCells, int[][] oCells, char winner) {
+        int[][] first = winner == 'X' ? xCells : oCells;
+        int[][] second = winner == 'X' ? oCells : xCells;
+        for (int i = 0; i < first.length; i++) {
+            if (winner == 'O') {
+                assertFalse(grid.play(grid.cell(second[i][0], second[i][1])));
+            }
+            boolean won = grid.play(grid.cell(first[i][0], first[i][1]));
+            assertEquals(i == first.length - 1, won);
+            if (winner == 'X' && i < first.length - 1) {
+                assertFalse(grid.play(grid.cell(second[i][0], second[i][1])));
+            }
+        }
+        assertEquals(winner, grid.getResult());
+        assertTrue(grid.isOver());
+        assertEquals(0, grid.legalMoves(new int[grid.getCells()]));
+    }
+
+    // Whether the stone has K in a row anywhere on the board, by looking at every cell and direction
+    private static boolean rescan(TicTacToeGrid grid, char stone) {
+        int size = grid.getSize();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] direction : directions) {
+                    int count = 0;
+                    int r = row;
+                    int c = col;
+                    while (count < grid.getK() && r >= 0 && r < size && c >= 0 && c < size && grid.getCell(r, c) == stone) {
+                        count++;
+                        r += direction[0];
+                        c += direction[1];
+                    }
+                    if (count == grid.getK()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Test that K in a row wins on a row, a column and both diagonals up to the edges")
+    public void testLines() {
+        // O plays far from X, on row 7, never four in a row of its own
+        int[][] oCells = {{7, 0}, {7, 2}, {7, 4}, {7, 6}};
+        // The last move fills the gap in the middle of the line
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{0, 10}, {0, 11}, {0, 13}, {0, 14}, {0, 12}}, oCells, 'X');
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{10, 14}, {11, 14}, {13, 14}, {14, 14}, {12, 14}}, oCells, 'X');
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{10, 10}, {11, 11}, {12, 12}, {13, 13}, {14, 14}}, oCells, 'X');
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{0, 14}, {1, 13}, {2, 12}, {3, 11}, {4, 10}}, oCells, 'X');
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{14, 0}, {13, 1}, {11, 3}, {10, 4}, {12, 2}}, oCells, 'X');
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}},
+                new int[][] {{7, 0}, {7, 2}, {7, 4}, {7, 6}, {7, 8}}, 'X');
+        // O wins on a diagonal, X on row 7 as well
+        playWin(new TicTacToeGrid(15, 5), new int[][] {{7, 0}, {7, 2}, {7, 4}, {7, 6}, {7, 8}},
+                new int[][] {{0, 0}, {1, 1}, {2, 2}, {4, 4}, {3, 3}}, 'O');
+        playWin(new TicTacToeGrid(3, 3), new int[][] {{0, 0}, {0, 1}, {0, 2}}, new int[][] {{1, 0}, {1, 1}}, 'X');
+        playWin(new TicTacToeGrid(1, 1), new int[][] {{0, 0}}, new int[0][], 'X');
+    }
+
+    @Test
+    @DisplayName("Test that fewer than K in a row, or a row that wraps to the next one, does not win")
+    public void testNoWin() {
+        TicTacToeGrid grid = new TicTacToeGrid(15, 5);
+        // Four in a row with both ends open
+        int[] xCells = {grid.cell(5, 5), grid.cell(5, 6), grid.cell(5, 7), grid.cell(5, 8)};
+        int[] oCells = {grid.cell(9, 0), grid.cell(9, 2), grid.cell(9, 4), grid.cell(9, 6)};
+        for (int i = 0; i < xCells.length; i++) {
+            assertFalse(grid.play(xCells[i]));
+            assertFalse(grid.play(oCells[i]));
+        }
+        assertFalse(grid.isOver());
+
+        // Cells 12, 13, 14 of row 0 and 0, 1 of row 1 follow each other on the array, but not on the board
+        grid = new TicTacToeGrid(15, 5);
+        xCells = new int[] {grid.cell(0, 12), grid.cell(0, 13), grid.cell(0, 14), grid.cell(1, 0), grid.cell(1, 1)};
+        for (int i = 0; i < xCells.length; i++) {
+            assertFalse(grid.play(xCells[i]));
+            if (i < oCells.length) {
+                assertFalse(grid.play(oCells[i]));
+            }
+        }
+        assertFalse(grid.isOver());
+    }
+
+    @Test
+    @DisplayName("Test that a full board without K in a row is a draw")
+    public void testDraw() {
+        TicTacToeGrid grid = new TicTacToeGrid(3, 3);
+        for (int cell : new int[] {0, 1, 2, 4, 3, 5, 7, 6, 8}) {
+            assertFalse(grid.isOver());
+            assertFalse(grid.play(cell));
+        }
+        assertEquals(TicTacToeGame.DRAW, grid.getResult());
+        assertTrue(grid.isOver());
+        assertEquals(0, grid.legalMoves(new int[9]));
+        assertFalse(grid.isLegal(0));
+    }
+
+    @Test
+    @DisplayName("Test that reset, undo and copy give back a board that plays like a new one")
+    public void testResetUndoAndCopy() {
+        TicTacToeGrid grid = new TicTacToeGrid(3, 3);
+        int[] win = {0, 3, 1, 4, 2};
+        for (int cell : win) {
+            grid.play(cell);
+        }
+        assertEquals('X', grid.getResult());
+        TicTacToeGrid copy = grid.copy();
+
+        grid.undo();
+        assertFalse(grid.isOver());
+        assertEquals(4, grid.getMoveCount());
+        assertEquals(4, grid.getLastMove());
+        assertEquals(' ', grid.getCell(0, 2));
+
+        grid.reset();
+        assertFalse(grid.isOver());
+        assertEquals(0, grid.getMoveCount());
+        assertEquals(-1, grid.getLastMove());
+        assertEquals('X', grid.getCurrentPlayer());
+        assertEquals(9, grid.legalMoves(new int[9]));
+        for (int cell = 0; cell < 9; cell++) {
+            assertEquals(' ', grid.getCell(cell / 3, cell % 3));
+        }
+        for (int cell : win) {
+            grid.play(cell);
+        }
+        assertEquals('X', grid.getResult());
+
+        // The copy kept its own state
+        assertEquals('X', copy.getResult());
+        assertEquals(5, copy.getMoveCount());
+        assertThrows(IllegalArgumentException.class, () -> copy.play(5));
+    }
+
+    @Test
+    @DisplayName("Test that the check through the last move agrees with a scan of the whole board on random games")
+    public void testRandomGames() {
+        Random random = new Random(42);
+        int[][] shapes = {{3, 3}, {4, 3}, {4, 4}, {5, 4}, {6, 3}, {7, 5}, {15, 5}, {2, 2}, {1, 1}, {5, 1}};
+        for (int[] shape : shapes) {
+            TicTacToeGrid grid = new TicTacToeGrid(shape[0], shape[1]);
+            int[] free = new int[grid.getCells()];
+            int draws = 0;
+            for (int game = 0; game < 300; game++) {
+                grid.reset();
+                while (!grid.isOver()) {
+                    char player = grid.getCurrentPlayer();
+                    int count = grid.legalMoves(free);
+                    boolean won = grid.play(free[random.nextInt(count)]);
+                    assertEquals(rescan(grid, player), won);
+                    if (won) {
+                        assertEquals(player, grid.getResult());
+                    } else if (grid.getMoveCount() == grid.getCells()) {
+                        assertEquals(TicTacToeGame.DRAW, grid.getResult());
+                        draws++;
+                    } else {
+                        assertFalse(grid.isOver());
+                    }
+                }
+            }
+            if (shape[1] == 1) {
+                assertEquals(0, draws);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that boards where nobody can win are rejected")
+    public void testInvalidShape() {
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeGrid(3, 4));
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeGrid(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeGrid(3, 0));
+    }
+}
@@ -0,0 +1,184 @@
+package gr.unipi.tictactoe;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Load generator for TicTacToeServer: connects bots that join games and play
+// random moves, one thread per bot (virtual when the JVM has them), and
+// reports moves per second and the latency from sending a move to receiving
+// the board with it (median, p99 and max).
+//   java gr.unipi.tictactoe.TicTacToeLoadGenerator [bots] [games per bot] [host port]
+// Without a host a server is started in this JVM on a free port.
+public class TicTacToeLoadGenerator {
+
+    // How long a bot waits for an opponent before it stops, the last bots may have nobody left to play
+    private static final int WAIT_TIMEOUT_MILLIS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        TicTacToeServer server = null;
+        String host;
+        int port;
+        if (args.length > 3) {
+            host = args[2];
+            port = Integer.parseInt(args[3]);
+        } else {
+            server = new TicTacToeServer(0);
+            server.start();
+            host = "localhost";
+            port = server.getPort();
+        }
+
+        ExecutorService executor = TicTacToeServer.threadPerTaskExecutor();
+        long start = System.nanoTime();
+        List<Future<Bot>> futures = new ArrayList<>();
+        for (int i = 0; i < bots; i++) {
+            futures.add(executor.submit(() -> play(host, port, games)));
+        }
+        List<long[]> latencies = new ArrayList<>();
+        int failed = 0;
+        // Until the last game ended, not until the bots left waiting for an opponent gave up
+        long end = start;
+        for (Future<Bot> future : futures) {
+            try {
+                Bot bot = future.get();
+                latencies.add(bot.latencies);
+                end = Math.max(end, bot.lastResult);
+            } catch (ExecutionException e) {
+                System.err.println("Bot failed: " + e.getCause());
+                failed++;
+            }
+        }
+        long nanos = Math.max(end - start, 1);
+        executor.shutdown();
+        if (server != null) {
+            server.close();
+        }
+
+        int moves = 0;
+        for (long[] bot : latencies) {
+            moves += bot.length;
+        }
+        long[] all = new long[moves];
+        int position = 0;
+        for (long[] bot : latencies) {
+            System.arraycopy(bot, 0, all, position, bot.length);
+            position += bot.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("%d bots, %d failed, %d moves in %d ms: %.0f moves/s, latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                bots, failed, moves, nanos / 1_000_000, moves * 1e9 / nanos,
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, all.length == 0 ? 0 : all[all.length - 1] / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    // Outcome of one bot
+    private static class Bot {
+        // Latency of every move of the bot in nanoseconds
+        private final long[] latencies;
+        // System.nanoTime() of the end of its last game
+        private final long lastResult;
+
+        private Bot(long[] latencies, long lastResult) {
+            this.latencies = latencies;
+            this.lastResult = lastResult;
+        }
+    }
+
+    // Plays the games on one connection
+    private static Bot play(String host, int port, int games) throws IOException {
+        long[] latencies = new long[games * 5];
+        int count = 0;
+        long lastResult = 0;
+        try (Socket socket = new Socket(host, port);
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(WAIT_TIMEOUT_MILLIS);
+            send(out, "JOIN");
+            char mark = ' ';
+            long sent = 0;
+            int played = 0;
+            while (played < games) {
+                String line;
+                try {
+                    line = in.readLine();
+                } catch (SocketTimeoutException e) {
+                    if (mark == ' ') {
+                        break;
+                    }
+                    throw e;
+                }
+                if (line == null) {
+                    break;
+                }
+                if (line.startsWith("START ")) {
+                    mark = line.charAt(6);
+                } else if (line.startsWith("STATE ")) {
+                    // The first board after our move is the one with it
+                    if (sent != 0) {
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                        sent = 0;
+                    }
+                    if (line.charAt(16) == mark) {
+                        sent = System.nanoTime();
+                        send(out, "MOVE " + randomFreeCell(line.substring(6, 15)));
+                    }
+                } else if (line.startsWith("RESULT ")) {
+                    lastResult = System.nanoTime();
+                    mark = ' ';
+                    sent = 0;
+                    if (++played < games) {
+                        send(out, "JOIN");
+                    }
+                } else if (line.startsWith("ERROR ")) {
+                    throw new IOException(line);
+                }
+            }
+            send(out, "QUIT");
+        }
+        return new Bot(Arrays.copyOf(latencies, count), lastResult);
+    }
+
+    private static int randomFreeCell(String board) {
+        int free = 0;
+        for (int i = 0; i < board.length(); i++) {
+            if (board.charAt(i) == '.') {
+                free++;
+            }
+        }
+        int skip = ThreadLocalRandom.current().nextInt(free);
+        for (int i = 0; ; i++) {
+            if (board.charAt(i) == '.' && skip-- == 0) {
+                return i;
+            }
+        }
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,272 @@
+package gr.unipi.tictactoe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Monte Carlo Tree Search player for TicTacToeGrid boards too large to solve.
+// Root parallelization: every worker of a fork-join pool grows its own tree
+// from the same position with its own random numbers, nothing is shared while
+// they run, and the visit counts of the root moves are added up at the end.
+// With a single tree the search runs on the calling thread.
+// A search is bounded by time or by a number of playouts, and reports how many
+// playouts per second it achieved.
+public class TicTacToeMcts {
+    // Exploration constant of UCT
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    private final ForkJoinPool pool;
+    private final int trees;
+
+    // One tree per core on the common pool
+    public TicTacToeMcts() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    public TicTacToeMcts(ForkJoinPool pool, int trees) {
+        if (trees < 1) {
+            throw new IllegalArgumentException("Need at least one tree, got " + trees);
+        }
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.trees = trees;
+    }
+
+    // A single tree grown on the calling thread, e.g. for a player of a game that runs on a pool already
+    public static TicTacToeMcts singleThreaded() {
+        return new TicTacToeMcts(ForkJoinPool.commonPool(), 1);
+    }
+
+    // Searches until the time is up
+    public Result search(TicTacToeGrid grid, Duration timeBudget) throws InterruptedException {
+        return search(grid, Long.MAX_VALUE, System.nanoTime() + timeBudget.toNanos());
+    }
+
+    // Runs the given number of playouts, split between the trees
+    public Result search(TicTacToeGrid grid, long playoutBudget) throws InterruptedException {
+        return search(grid, playoutBudget, Long.MAX_VALUE);
+    }
+
+    private Result search(TicTacToeGrid grid, long playoutBudget, long deadline) throws InterruptedException {
+        if (grid.isOver()) {
+            throw new IllegalArgumentException("The game is over");
+        }
+        long start = System.nanoTime();
+        List<Callable<Tree>> tasks = new ArrayList<>();
+        for (int i = 0; i < trees; i++) {
+            long playouts = playoutBudget == Long.MAX_VALUE
+                    ? Long.MAX_VALUE
+                    : playoutBudget / trees + (i < playoutBudget % trees ? 1 : 0);
+            TicTacToeGrid copy = grid.copy();
+            long seed = ThreadLocalRandom.current().nextLong();
+            tasks.add(() -> {
+                Tree tree = new Tree(copy, new SplittableRandom(seed));
+                tree.grow(playouts, deadline);
+                return tree;
+            });
+        }
+
+        long[] visits = new long[grid.getCells()];
+        long playouts = 0;
+        for (Tree tree : grow(tasks)) {
+            playouts += tree.playouts;
+            for (Node child : tree.root.children) {
+                visits[child.move] += child.visits;
+            }
+        }
+
+        // The most visited move is the most robust choice
+        int best = -1;
+        for (int cell = 0; cell < visits.length; cell++) {
+            if (grid.isLegal(cell) && (best < 0 || visits[cell] > visits[best])) {
+                best = cell;
+            }
+        }
+        return new Result(best, playouts, System.nanoTime() - start);
+    }
+
+    // A single tree is grown on the calling thread, more are handed to the pool
+    private List<Tree> grow(List<Callable<Tree>> tasks) throws InterruptedException {
+        List<Tree> grown = new ArrayList<>();
+        try {
+            if (tasks.size() == 1) {
+                grown.add(tasks.get(0).call());
+                return grown;
+            }
+            for (Future<Tree> future : pool.invokeAll(tasks)) {
+                grown.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } catch (InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Search failed", e);
+        }
+        return grown;
+    }
+
+    // Outcome of a search
+    public static class Result {
+        private final int move;
+        private final long playouts;
+        private final long nanos;
+
+        private Result(int move, long playouts, long nanos) {
+            this.move = move;
+            this.playouts = playouts;
+            this.nanos = nanos;
+        }
+
+        // Cell of the chosen move
+        public int getMove() {
+            return move;
+        }
+
+        // Playouts of all trees together
+        public long getPlayouts() {
+            return playouts;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getPlayoutsPerSecond() {
+            return nanos == 0 ? 0 : playouts * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "move " + move + ", " + playouts + " playouts in " + nanos / 1_000_000 + " ms ("
+                    + Math.round(getPlayoutsPerSecond()) + " playouts/s)";
+        }
+    }
+
+    // Search tree of one worker
+    private static class Tree {
+        private final TicTacToeGrid grid;
+        private final SplittableRandom random;
+        private final Node root;
+        // Free cells of the position being played out
+        private final int[] free;
+        private long playouts;
+
+        private Tree(TicTacToeGrid grid, SplittableRandom random) {
+            this.grid = grid;
+            this.random = random;
+            this.free = new int[grid.getCells()];
+            this.root = new Node(-1, ' ', null, grid);
+        }
+
+        private void grow(long budget, long deadline) {
+            while (playouts < budget && System.nanoTime() < deadline) {
+                playout();
+                playouts++;
+            }
+        }
+
+        // Selection, expansion, random rollout and backpropagation, then the grid is back at the root
+        private void playout() {
+            int depth = 0;
+            Node node = root;
+            while (node.untried == 0 && !node.children.isEmpty()) {
+                node = node.select();
+                grid.play(node.move);
+                depth++;
+            }
+            if (node.untried > 0) {
+                int i = random.nextInt(node.untried);
+                int move = node.untriedMoves[i];
+                node.untriedMoves[i] = node.untriedMoves[--node.untried];
+                char player = grid.getCurrentPlayer();
+                grid.play(move);
+                depth++;
+                node = node.add(move, player, grid);
+            }
+
+            int count = grid.legalMoves(free);
+            while (!grid.isOver()) {
+                int i = random.nextInt(count);
+                int move = free[i];
+                free[i] = free[--count];
+                grid.play(move);
+                depth++;
+            }
+            char result = grid.getResult();
+            for (int i = 0; i < depth; i++) {
+                grid.undo();
+            }
+
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                if (result == node.player) {
+                    node.wins += 1;
+                } else if (result == TicTacToeGame.DRAW) {
+                    node.wins += 0.5;
+                }
+            }
+        }
+    }
+
+    // Position reached by a move, wins are counted for the player who made it
+    private static class Node {
+        private final int move;
+        private final char player;
+        private final Node parent;
+        private final List<Node> children = new ArrayList<>();
+        // Moves not expanded yet are untriedMoves[0 .. untried)
+        private final int[] untriedMoves;
+        private int untried;
+        private int visits;
+        private double wins;
+
+        private Node(int move, char player, Node parent, TicTacToeGrid grid) {
+            this.move = move;
+            this.player = player;
+            this.parent = parent;
+            this.untriedMoves = new int[grid.isOver() ? 0 : grid.getCells() - grid.getMoveCount()];
+            this.untried = grid.legalMoves(untriedMoves);
+        }
+
+        private Node add(int move, char player, TicTacToeGrid grid) {
+            Node child = new Node(move, player, this, grid);
+            children.add(child);
+            return child;
+        }
+
+        // Child with the highest upper confidence bound
+        private Node select() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                double value = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    // Measures playouts per second: java gr.unipi.tictactoe.TicTacToeMcts [size] [k] [milliseconds]
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        TicTacToeMcts mcts = new TicTacToeMcts();
+        TicTacToeGrid grid = new TicTacToeGrid(size, k);
+        // A first search warms up the JIT
+        mcts.search(grid, Duration.ofMillis(millis));
+        System.out.println(size + "x" + size + ", " + k + " in a row, " + mcts.trees + " trees: "
+                + mcts.search(grid, Duration.ofMillis(millis)));
+    }
+}
@@ -0,0 +1,91 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeMctsTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // 3 x 3 grid after the moves
+    private static TicTacToeGrid grid(int... moves) {
+        TicTacToeGrid grid = new TicTacToeGrid(3, 3);
+        for (int move : moves) {
+            grid.play(move);
+        }
+        return grid;
+    }
+
+    @Test
+    @DisplayName("Test that the trees of the pool together find a move that wins at once")
+    public void testWin() throws InterruptedException {
+        TicTacToeMcts mcts = new TicTacToeMcts(pool, 4);
+        // X to play, 2 completes the top row, O threatens the middle row
+        assertEquals(2, mcts.search(grid(0, 3, 1, 4), 20_000).getMove());
+        // O to play, 5 completes the middle row
+        assertEquals(5, mcts.search(grid(0, 3, 1, 4, 8), 20_000).getMove());
+    }
+
+    @Test
+    @DisplayName("Test that the trees of the pool together block a line the opponent completes next")
+    public void testBlock() throws InterruptedException {
+        TicTacToeMcts mcts = new TicTacToeMcts(pool, 4);
+        // O to play must take 2, or X completes the top row
+        assertEquals(2, mcts.search(grid(0, 4, 1), 20_000).getMove());
+        // X to play must take 6, or O completes the left column
+        assertEquals(6, mcts.search(grid(4, 0, 8, 3), 20_000).getMove());
+    }
+
+    @Test
+    @DisplayName("Test that a playout budget is split between the trees and run exactly")
+    public void testPlayoutBudget() throws InterruptedException {
+        TicTacToeGrid grid = new TicTacToeGrid(7, 4);
+        TicTacToeMcts.Result result = new TicTacToeMcts(pool, 4).search(grid, 1_001);
+        assertEquals(1_001, result.getPlayouts());
+        assertTrue(grid.isLegal(result.getMove()));
+        assertTrue(result.getPlayoutsPerSecond() > 0);
+        // The searched grid is left as it was
+        assertEquals(0, grid.getMoveCount());
+
+        assertEquals(10, new TicTacToeMcts(pool, 1).search(grid, 10).getPlayouts());
+        assertEquals(10, TicTacToeMcts.singleThreaded().search(grid, 10).getPlayouts());
+    }
+
+    @Test
+    @DisplayName("Test that a time budget ends the search and playouts per second are reported")
+    public void testTimeBudget() throws InterruptedException {
+        TicTacToeGrid grid = new TicTacToeGrid(15, 5);
+        TicTacToeMcts.Result result = new TicTacToeMcts(pool, 4).search(grid, Duration.ofMillis(200));
+        assertTrue(result.getNanos() >= Duration.ofMillis(200).toNanos(), result.toString());
+        assertTrue(result.getNanos() < Duration.ofSeconds(10).toNanos(), result.toString());
+        assertTrue(result.getPlayouts() > 0);
+        assertTrue(result.getPlayoutsPerSecond() > 0);
+        assertTrue(grid.isLegal(result.getMove()));
+    }
+
+    @Test
+    @DisplayName("Test that finished games and searches without trees are rejected")
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeMcts(pool, 0));
+        assertThrows(NullPointerException.class, () -> new TicTacToeMcts(null, 1));
+        TicTacToeGrid over = grid(0, 3, 1, 4, 2);
+        assertThrows(IllegalArgumentException.class, () -> new TicTacToeMcts(pool, 4).search(over, 100));
+    }
+}
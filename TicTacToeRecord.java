@@ -0,0 +1,215 @@
+package gr.unipi.tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Compact binary record of a finished TicTacToe game: a header byte with the
+// result (high nibble) and the number of moves (low nibble), then one nibble per
+// move, the cell 0-8, two moves per byte, first move in the high nibble.
+// A whole game takes 1 to 6 bytes. Records are appended to a rolling log,
+// see Log, and read back by TicTacToeReplay.
+public final class TicTacToeRecord {
+    // Results of the header
+    public static final int UNFINISHED = 0;
+    public static final int X_WINS = 1;
+    public static final int O_WINS = 2;
+    public static final int DRAW = 3;
+    // Unfinished games won because the other player left
+    public static final int X_FORFEIT = 4;
+    public static final int O_FORFEIT = 5;
+
+    // Largest record: header and 9 moves
+    public static final int MAX_SIZE = 6;
+
+    // Start of every log file, "TTTR" and the version of the format
+    static final int MAGIC = 0x54545452;
+    static final byte VERSION = 1;
+    static final int FILE_HEADER_SIZE = 5;
+
+    private TicTacToeRecord() {
+    }
+
+    // Writes the record of the game and returns its size
+    public static int encode(TicTacToeGame game, ByteBuffer out) {
+        return encode(game, result(game), out);
+    }
+
+    // Writes the record of the game with the given result, e.g. a forfeit
+    public static int encode(TicTacToeGame game, int result, ByteBuffer out) {
+        int count = game.getMoveCount();
+        out.put((byte) (result << 4 | count));
+        for (int i = 0; i < count; i += 2) {
+            int high = game.getMove(i);
+            int low = i + 1 < count ? game.getMove(i + 1) : 0;
+            out.put((byte) (high << 4 | low));
+        }
+        return size(count);
+    }
+
+    // Size of a record with the given number of moves
+    public static int size(int moves) {
+        return 1 + (moves + 1) / 2;
+    }
+
+    static int result(TicTacToeGame game) {
+        switch (game.getResult()) {
+            case 'X':
+                return X_WINS;
+            case 'O':
+                return O_WINS;
+            case TicTacToeGame.DRAW:
+                return DRAW;
+            default:
+                return UNFINISHED;
+        }
+    }
+
+    // Log files of a directory are games-00000.log, games-00001.log, ...
+    static String fileName(int number) {
+        return String.format("games-%05d.log", number);
+    }
+
+    // Result of an unfinished game left by the other player of the winner
+    static int forfeit(char winner) {
+        return winner == 'X' ? X_FORFEIT : O_FORFEIT;
+    }
+
+    static boolean isLogFile(Path file) {
+        return file.getFileName().toString().matches("games-\\d{5,}\\.log");
+    }
+
+    // Append-only log of records in a directory. Records are gathered in a buffer
+    // and written to the current file when it is full or at the latest after the
+    // delay; once a file passes the size limit the log rolls over to the next one.
+    // Safe to use from many threads.
+    public static final class Log implements Closeable {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final Path directory;
+        private final long maxFileSize;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // A lock rather than synchronized, so virtual threads waiting for it do not pin their carriers
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tictactoe-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private FileChannel channel;
+        private int fileNumber;
+
+        // Starts a new file after the existing ones of the directory, records stay
+        // in the buffer for at most about maxDelay
+        public Log(Path directory, long maxFileSize, Duration maxDelay) throws IOException {
+            this.directory = directory;
+            this.maxFileSize = maxFileSize;
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    if (isLogFile(file)) {
+                        String name = file.getFileName().toString();
+                        fileNumber = Math.max(fileNumber, Integer.parseInt(name.substring(6, name.length() - 4)) + 1);
+                    }
+                }
+            }
+            open();
+            flusher.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, maxDelay.toMillis(), maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        public void append(TicTacToeGame game) throws IOException {
+            append(game, result(game));
+        }
+
+        // Appends an unfinished game that the winner won because the other player left
+        public void appendForfeit(TicTacToeGame game, char winner) throws IOException {
+            append(game, forfeit(winner));
+        }
+
+        private void append(TicTacToeGame game, int result) throws IOException {
+            lock.lock();
+            try {
+                // Nothing writes the buffer once the log is closed, the game would be lost
+                if (!channel.isOpen()) {
+                    throw new IOException("log closed");
+                }
+                if (buffer.remaining() < MAX_SIZE) {
+                    writeBuffer(true);
+                }
+                encode(game, result, buffer);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Writes the buffered records to the file
+        public void flush() throws IOException {
+            lock.lock();
+            try {
+                if (channel.isOpen()) {
+                    writeBuffer(true);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flusher.shutdownNow();
+            lock.lock();
+            try {
+                if (!channel.isOpen()) {
+                    return;
+                }
+                // No rollover here, it would leave a new empty file behind
+                writeBuffer(false);
+                channel.close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void writeBuffer(boolean rollOver) throws IOException {
+            if (buffer.position() == 0) {
+                return;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            if (rollOver && channel.size() >= maxFileSize) {
+                channel.close();
+                fileNumber++;
+                open();
+            }
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(directory.resolve(fileName(fileNumber)),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            header.putInt(MAGIC).put(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+    }
+}
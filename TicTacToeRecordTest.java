@@ -0,0 +1,178 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeRecordTest {
+
+    private static final TicTacToeGame X_WIN = TicTacToeGame.of(0, 3, 1, 4, 2);
+    private static final TicTacToeGame O_WIN = TicTacToeGame.of(0, 3, 1, 4, 8, 5);
+    private static final TicTacToeGame DRAW = TicTacToeGame.of(0, 1, 2, 4, 3, 5, 7, 6, 8);
+    private static final TicTacToeGame UNFINISHED = TicTacToeGame.of(4, 0);
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tictactoe-log");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path file : logFiles()) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Test that logged games are replayed with their results")
+    public void testRoundTrip() throws IOException {
+        assertEquals('X', X_WIN.getResult());
+        assertEquals('O', O_WIN.getResult());
+        assertEquals(TicTacToeGame.DRAW, DRAW.getResult());
+        try (TicTacToeRecord.Log log = new TicTacToeRecord.Log(directory, 1 << 20, Duration.ofMinutes(1))) {
+            for (int i = 0; i < 10_000; i++) {
+                log.append(X_WIN);
+                log.append(O_WIN);
+                log.append(DRAW);
+                log.append(UNFINISHED);
+                log.appendForfeit(UNFINISHED, 'X');
+                log.appendForfeit(TicTacToeGame.initial(), 'O');
+            }
+        }
+
+        TicTacToeReplay.Stats stats = TicTacToeReplay.replay(directory);
+        assertEquals(60_000, stats.getGames());
+        assertEquals(0, stats.getInvalid());
+        assertEquals(0, stats.getTruncatedFiles());
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.X_WINS));
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.O_WINS));
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.DRAW));
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.UNFINISHED));
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.X_FORFEIT));
+        assertEquals(10_000, stats.getResults(TicTacToeRecord.O_FORFEIT));
+        assertEquals(30_000, stats.getOpenings(0));
+        assertEquals(20_000, stats.getOpenings(4));
+    }
+
+    @Test
+    @DisplayName("Test that the log rolls over to a new file but not when it is closed")
+    public void testRollOver() throws IOException {
+        try (TicTacToeRecord.Log log = new TicTacToeRecord.Log(directory, 8, Duration.ofMinutes(1))) {
+            log.append(X_WIN);
+            log.flush();
+            log.append(O_WIN);
+            // Passes the size limit again, but the closing write does not start a third file
+            for (int i = 0; i < 100; i++) {
+                log.append(DRAW);
+            }
+        }
+
+        List<Path> files = logFiles();
+        assertEquals(2, files.size());
+        assertEquals(TicTacToeRecord.fileName(0), files.get(0).getFileName().toString());
+        assertEquals(TicTacToeRecord.fileName(1), files.get(1).getFileName().toString());
+        assertEquals(1, TicTacToeReplay.replayFile(files.get(0)).getGames());
+        assertEquals(101, TicTacToeReplay.replayFile(files.get(1)).getGames());
+    }
+
+    @Test
+    @DisplayName("Test that buffered games are written after the delay without a flush")
+    public void testTimedFlush() throws Exception {
+        try (TicTacToeRecord.Log log = new TicTacToeRecord.Log(directory, 1 << 20, Duration.ofMillis(20))) {
+            log.append(X_WIN);
+            Path file = directory.resolve(TicTacToeRecord.fileName(0));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (TicTacToeReplay.replayFile(file).getGames() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, TicTacToeReplay.replayFile(file).getGames());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that appending to a closed log fails instead of losing the game")
+    public void testAppendAfterClose() throws IOException {
+        TicTacToeRecord.Log log = new TicTacToeRecord.Log(directory, 1 << 20, Duration.ofMinutes(1));
+        log.append(X_WIN);
+        log.close();
+        assertThrows(IOException.class, () -> log.append(O_WIN));
+        assertThrows(IOException.class, () -> log.appendForfeit(UNFINISHED, 'X'));
+        assertEquals(1, TicTacToeReplay.replayFile(directory.resolve(TicTacToeRecord.fileName(0))).getGames());
+    }
+
+    @Test
+    @DisplayName("Test that a record cut short at the end of a file is counted as truncated")
+    public void testTornTail() throws IOException {
+        try (TicTacToeRecord.Log log = new TicTacToeRecord.Log(directory, 1 << 20, Duration.ofMinutes(1))) {
+            log.append(X_WIN);
+            log.append(DRAW);
+        }
+        // The first two bytes of another draw, as if the server stopped in the middle of a write
+        ByteBuffer record = ByteBuffer.allocate(TicTacToeRecord.MAX_SIZE);
+        TicTacToeRecord.encode(DRAW, record);
+        Path file = directory.resolve(TicTacToeRecord.fileName(0));
+        Files.write(file, new byte[] {record.get(0), record.get(1)}, StandardOpenOption.APPEND);
+
+        TicTacToeReplay.Stats stats = TicTacToeReplay.replayFile(file);
+        assertEquals(2, stats.getGames());
+        assertEquals(0, stats.getInvalid());
+        assertEquals(1, stats.getTruncatedFiles());
+    }
+
+    @Test
+    @DisplayName("Test that records which do not replay to their result are counted as invalid")
+    public void testInvalidRecords() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.putInt(TicTacToeRecord.MAGIC).put(TicTacToeRecord.VERSION);
+        TicTacToeRecord.encode(X_WIN, buffer);
+        // Wrong result
+        TicTacToeRecord.encode(X_WIN, TicTacToeRecord.O_WINS, buffer);
+        // A forfeit of a game that was already won
+        TicTacToeRecord.encode(O_WIN, TicTacToeRecord.X_FORFEIT, buffer);
+        // Unknown result
+        TicTacToeRecord.encode(UNFINISHED, 6, buffer);
+        // The same cell twice
+        buffer.put((byte) (TicTacToeRecord.UNFINISHED << 4 | 2)).put((byte) 0x44);
+        // A move after the game was won
+        buffer.put((byte) (TicTacToeRecord.X_WINS << 4 | 6)).put((byte) 0x03).put((byte) 0x14).put((byte) 0x25);
+        // A cell outside the board
+        buffer.put((byte) (TicTacToeRecord.UNFINISHED << 4 | 1)).put((byte) 0x90);
+        TicTacToeRecord.encode(O_WIN, buffer);
+        buffer.flip();
+        Path file = directory.resolve(TicTacToeRecord.fileName(0));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(buffer);
+        }
+
+        TicTacToeReplay.Stats stats = TicTacToeReplay.replayFile(file);
+        assertEquals(8, stats.getGames());
+        assertEquals(6, stats.getInvalid());
+        assertEquals(0, stats.getTruncatedFiles());
+        assertEquals(1, stats.getResults(TicTacToeRecord.X_WINS));
+        assertEquals(1, stats.getResults(TicTacToeRecord.O_WINS));
+        assertEquals(0, stats.getResults(TicTacToeRecord.X_FORFEIT));
+    }
+
+    private List<Path> logFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
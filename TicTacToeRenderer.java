@@ -0,0 +1,95 @@
+package gr.unipi.tictactoe;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Draws boards on a console: console() and ansi().
+// The console renderers build the whole frame in a byte buffer kept between
+// frames and write it with one call, instead of a print per cell.
+// A renderer keeps its buffer between calls, so it is used by one thread at a time.
+public interface TicTacToeRenderer {
+
+    void render(TicTacToeBoard board);
+
+    // Plain text, the same frame the console game always printed
+    static TicTacToeRenderer console(PrintStream out) {
+        return new Text(out, false);
+    }
+
+    // Clears the terminal before every frame and colors the marks, for spectating
+    static TicTacToeRenderer ansi(PrintStream out) {
+        return new Text(out, true);
+    }
+
+    // Text frame written with a single write
+    class Text implements TicTacToeRenderer {
+        private static final byte[] CLEAR = "\u001b[H\u001b[2J".getBytes();
+        private static final byte[] RED = "\u001b[31m".getBytes();
+        private static final byte[] BLUE = "\u001b[34m".getBytes();
+        private static final byte[] RESET = "\u001b[0m".getBytes();
+
+        private final PrintStream out;
+        private final boolean ansi;
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        private Text(PrintStream out, boolean ansi) {
+            this.out = out;
+            this.ansi = ansi;
+        }
+
+        @Override
+        public void render(TicTacToeBoard board) {
+            int size = board.getSize();
+            length = 0;
+            if (ansi) {
+                append(CLEAR);
+            }
+            separator(size);
+            for (int row = 0; row < size; row++) {
+                append('|');
+                append(' ');
+                for (int col = 0; col < size; col++) {
+                    char cell = board.getCell(row, col);
+                    if (ansi && cell != ' ') {
+                        append(cell == 'X' ? RED : BLUE);
+                        append(cell);
+                        append(RESET);
+                    } else {
+                        append(cell);
+                    }
+                    append(' ');
+                    append('|');
+                    append(' ');
+                }
+                append('\n');
+                separator(size);
+            }
+            out.write(buffer, 0, length);
+            out.flush();
+        }
+
+        // "-------------" for a 3 x 3 board
+        private void separator(int size) {
+            for (int i = 0; i < 4 * size + 1; i++) {
+                append('-');
+            }
+            append('\n');
+        }
+
+        private void append(char c) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte) c;
+        }
+
+        private void append(byte[] bytes) {
+            if (length + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(length * 2, length + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+    }
+}
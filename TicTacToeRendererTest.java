@@ -0,0 +1,77 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeRendererTest {
+
+    private static final String SEPARATOR = "-------------\n";
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(bytes, false, StandardCharsets.US_ASCII);
+
+    // What was rendered since the last call
+    private String rendered() {
+        String text = new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+        bytes.reset();
+        return text;
+    }
+
+    @Test
+    @DisplayName("Test that the console renderer draws the board as the console game always did")
+    public void testConsole() {
+        TicTacToeRenderer renderer = TicTacToeRenderer.console(out);
+        renderer.render(TicTacToeGame.initial());
+        assertEquals(SEPARATOR
+                + "|   |   |   | \n" + SEPARATOR
+                + "|   |   |   | \n" + SEPARATOR
+                + "|   |   |   | \n" + SEPARATOR, rendered());
+
+        // The buffer kept from the previous frame leaves nothing behind
+        renderer.render(TicTacToeGame.of(0, 4, 8));
+        assertEquals(SEPARATOR
+                + "| X |   |   | \n" + SEPARATOR
+                + "|   | O |   | \n" + SEPARATOR
+                + "|   |   | X | \n" + SEPARATOR, rendered());
+    }
+
+    @Test
+    @DisplayName("Test that the ANSI renderer clears the screen and colors the marks")
+    public void testAnsi() {
+        TicTacToeRenderer renderer = TicTacToeRenderer.ansi(out);
+        renderer.render(TicTacToeGame.of(0, 4));
+        String x = "\u001b[31mX\u001b[0m";
+        String o = "\u001b[34mO\u001b[0m";
+        assertEquals("\u001b[H\u001b[2J" + SEPARATOR
+                + "| " + x + " |   |   | \n" + SEPARATOR
+                + "|   | " + o + " |   | \n" + SEPARATOR
+                + "|   |   |   | \n" + SEPARATOR, rendered());
+    }
+
+    @Test
+    @DisplayName("Test that boards larger than the first buffer are drawn whole")
+    public void testLargeBoard() {
+        TicTacToeGrid grid = new TicTacToeGrid(15, 5);
+        grid.play(grid.cell(14, 14));
+        TicTacToeRenderer renderer = TicTacToeRenderer.ansi(out);
+        renderer.render(grid);
+        String text = rendered();
+        String separator = "-".repeat(61) + "\n";
+        assertTrue(text.startsWith("\u001b[H\u001b[2J" + separator + "|   |"), text);
+        assertTrue(text.endsWith("|   | \u001b[31mX\u001b[0m | \n" + separator), text);
+        assertEquals(16, text.split(separator, -1).length - 1);
+
+        // A smaller board after a larger one
+        renderer = TicTacToeRenderer.console(out);
+        renderer.render(grid);
+        rendered();
+        renderer.render(new TicTacToeGrid(1, 1));
+        assertEquals("-----\n|   | \n-----\n", rendered());
+    }
+}
@@ -0,0 +1,205 @@
+package gr.unipi.tictactoe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Reads the logs of TicTacToeRecord.Log back: every game is replayed move by
+// move on bitboards to check that the moves are legal and end in the recorded
+// result, and the games are summed up into results, lengths and opening
+// statistics. Files are memory mapped and replayed in parallel, one per thread.
+//   java gr.unipi.tictactoe.TicTacToeReplay <log directory>
+public class TicTacToeReplay {
+
+    // Totals of one or more log files
+    public static class Stats {
+        private long games;
+        private long invalid;
+        private long truncatedFiles;
+        private long moves;
+        private final long[] results = new long[6];
+        // Games, X wins and O wins by the cell of the first move
+        private final long[] openings = new long[TicTacToeEngine.CELLS];
+        private final long[] openingXWins = new long[TicTacToeEngine.CELLS];
+        private final long[] openingOWins = new long[TicTacToeEngine.CELLS];
+
+        public long getGames() {
+            return games;
+        }
+
+        // Games whose moves are illegal or do not lead to the recorded result
+        public long getInvalid() {
+            return invalid;
+        }
+
+        // Files that end in the middle of a record, e.g. after a crash
+        public long getTruncatedFiles() {
+            return truncatedFiles;
+        }
+
+        // Games with the given TicTacToeRecord result
+        public long getResults(int result) {
+            return results[result];
+        }
+
+        public long getOpenings(int cell) {
+            return openings[cell];
+        }
+
+        private Stats add(Stats other) {
+            games += other.games;
+            invalid += other.invalid;
+            truncatedFiles += other.truncatedFiles;
+            moves += other.moves;
+            for (int i = 0; i < results.length; i++) {
+                results[i] += other.results[i];
+            }
+            for (int i = 0; i < openings.length; i++) {
+                openings[i] += other.openings[i];
+                openingXWins[i] += other.openingXWins[i];
+                openingOWins[i] += other.openingOWins[i];
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            long valid = Math.max(games - invalid, 1);
+            text.append(String.format("%d games, %d invalid, %d truncated files, %.2f moves per game%n",
+                    games, invalid, truncatedFiles, (double) moves / valid));
+            text.append(String.format("X %.1f%%, O %.1f%%, draw %.1f%%, unfinished %.1f%%, X by forfeit %.1f%%, O by forfeit %.1f%%%n",
+                    100.0 * results[TicTacToeRecord.X_WINS] / valid, 100.0 * results[TicTacToeRecord.O_WINS] / valid,
+                    100.0 * results[TicTacToeRecord.DRAW] / valid, 100.0 * results[TicTacToeRecord.UNFINISHED] / valid,
+                    100.0 * results[TicTacToeRecord.X_FORFEIT] / valid, 100.0 * results[TicTacToeRecord.O_FORFEIT] / valid));
+            text.append("Opening  games      X wins  O wins").append(System.lineSeparator());
+            for (int cell = 0; cell < openings.length; cell++) {
+                long count = Math.max(openings[cell], 1);
+                text.append(String.format("row %d col %d  %9d  %5.1f%%  %5.1f%%%n", cell / 3 + 1, cell % 3 + 1,
+                        openings[cell], 100.0 * openingXWins[cell] / count, 100.0 * openingOWins[cell] / count));
+            }
+            return text.toString();
+        }
+    }
+
+    // Replays every log file of the directory
+    public static Stats replay(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path file : entries) {
+                if (TicTacToeRecord.isLogFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files.parallelStream().map(file -> {
+            try {
+                return replayFile(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).reduce(Stats::add).orElseGet(Stats::new);
+    }
+
+    public static Stats replayFile(Path file) throws IOException {
+        Stats stats = new Stats();
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log file too large to map: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int limit = map.limit();
+        if (limit < TicTacToeRecord.FILE_HEADER_SIZE || map.getInt(0) != TicTacToeRecord.MAGIC
+                || map.get(4) != TicTacToeRecord.VERSION) {
+            throw new IOException("Not a game log: " + file);
+        }
+
+        int position = TicTacToeRecord.FILE_HEADER_SIZE;
+        while (position < limit) {
+            int header = map.get(position) & 0xFF;
+            int result = header >>> 4;
+            int count = header & 0xF;
+            int size = TicTacToeRecord.size(count);
+            if (position + size > limit) {
+                stats.truncatedFiles++;
+                break;
+            }
+            stats.games++;
+            if (!replayGame(map, position + 1, count, result, stats)) {
+                stats.invalid++;
+            }
+            position += size;
+        }
+        return stats;
+    }
+
+    // Replays one record and adds it to the stats if it is valid
+    private static boolean replayGame(MappedByteBuffer map, int position, int count, int result, Stats stats) {
+        if (count > TicTacToeEngine.CELLS || result > TicTacToeRecord.O_FORFEIT) {
+            return false;
+        }
+        int xMask = 0;
+        int oMask = 0;
+        boolean over = false;
+        for (int i = 0; i < count; i++) {
+            int packed = map.get(position + i / 2) & 0xFF;
+            int cell = (i & 1) == 0 ? packed >>> 4 : packed & 0xF;
+            int bit = 1 << cell;
+            if (over || cell >= TicTacToeEngine.CELLS || ((xMask | oMask) & bit) != 0) {
+                return false;
+            }
+            if ((i & 1) == 0) {
+                xMask |= bit;
+                over = TicTacToeEngine.isWin(xMask);
+            } else {
+                oMask |= bit;
+                over = TicTacToeEngine.isWin(oMask);
+            }
+        }
+        int actual = TicTacToeEngine.isWin(xMask) ? TicTacToeRecord.X_WINS
+                : TicTacToeEngine.isWin(oMask) ? TicTacToeRecord.O_WINS
+                : count == TicTacToeEngine.CELLS ? TicTacToeRecord.DRAW
+                : TicTacToeRecord.UNFINISHED;
+        // A forfeit ends a game that is still unfinished on the board
+        int expected = result == TicTacToeRecord.X_FORFEIT || result == TicTacToeRecord.O_FORFEIT
+                ? TicTacToeRecord.UNFINISHED : result;
+        if (actual != expected) {
+            return false;
+        }
+
+        stats.results[result]++;
+        stats.moves += count;
+        if (count > 0) {
+            int first = (map.get(position) & 0xFF) >>> 4;
+            stats.openings[first]++;
+            if (result == TicTacToeRecord.X_WINS || result == TicTacToeRecord.X_FORFEIT) {
+                stats.openingXWins[first]++;
+            } else if (result == TicTacToeRecord.O_WINS || result == TicTacToeRecord.O_FORFEIT) {
+                stats.openingOWins[first]++;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "games");
+        long start = System.nanoTime();
+        Stats stats = replay(directory);
+        long nanos = System.nanoTime() - start;
+        System.out.print(stats);
+        System.out.printf("Replayed in %d ms (%.0f games/s)%n", nanos / 1_000_000, stats.getGames() * 1e9 / Math.max(nanos, 1));
+    }
+}
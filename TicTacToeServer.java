@@ -0,0 +1,374 @@
+package gr.unipi.tictactoe;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// TCP server for two-player TicTacToe, one thread per connection.
+// On Java 21 and later the threads are virtual, so tens of thousands of
+// connections cost little more than their sockets; older JVMs fall back to a
+// cached pool of platform threads. Games are immutable TicTacToeGame states
+// swapped with compare-and-set, so rooms need no locks. Finished and forfeited
+// games can be appended to a TicTacToeRecord.Log.
+//
+// Line protocol, one command or message per line:
+//   client: JOIN             wait for an opponent, the two are put in a room
+//           MOVE <cell>      play cell 0-8 (row * 3 + column)
+//           STATE            ask for the board again
+//           QUIT             close the connection
+//   server: WAIT             no opponent yet
+//           START <X|O>      the game started, this is your mark
+//           STATE <board> <X|O|->  the 9 cells (X, O or .) and the player to move
+//           RESULT <X|O|DRAW> [forfeit]
+//           ERROR <message>
+public class TicTacToeServer implements Closeable {
+    // Connections waiting to be accepted
+    private static final int BACKLOG = 4096;
+
+    // How long close waits for the connections to record their last games
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    // Finished game that replaces the game of a room when a player leaves it, never sent to anyone
+    private static final TicTacToeGame FORFEITED = TicTacToeGame.of(0, 3, 1, 4, 2);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = threadPerTaskExecutor();
+    // Sockets of the open connections, closed with the server
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    // The player waiting for an opponent, if any
+    private final AtomicReference<Player> waiting = new AtomicReference<>();
+
+    // Where the games are recorded, null for nowhere
+    private final TicTacToeRecord.Log log;
+
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+
+    public TicTacToeServer(int port) throws IOException {
+        this(port, null);
+    }
+
+    // Records every game in the log, the server closes it when it is closed
+    public TicTacToeServer(int port, TicTacToeRecord.Log log) throws IOException {
+        this.log = log;
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port), BACKLOG);
+    }
+
+    // The port the server listens on, useful when it was created with port 0
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    // Accepts connections on a thread of its own until the server is closed
+    public void start() {
+        Thread acceptor = new Thread(this::acceptLoop, "tictactoe-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                // close may have missed the socket, it was added after close went over them
+                if (serverSocket.isClosed()) {
+                    socket.close();
+                    break;
+                }
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // Closes the connections and waits for them to record their games before the log is closed;
+    // the games running on them are forfeited
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        connections.shutdownNow();
+        try {
+            connections.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    // Virtual thread per task when the JVM has them (Java 21+), else a cached thread pool
+    static ExecutorService threadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // Reads the commands of one connection until it closes
+    private void serve(Socket socket) {
+        Player player = null;
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII))) {
+            player = new Player(s, new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII)));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("JOIN")) {
+                    join(player);
+                } else if (line.startsWith("MOVE ")) {
+                    move(player, line.substring(5).trim());
+                } else if (line.equals("STATE")) {
+                    Room room = player.room;
+                    player.send(room == null ? "ERROR not in a game" : state(room.game.get()));
+                } else if (line.equals("QUIT")) {
+                    break;
+                } else {
+                    player.send("ERROR unknown command");
+                }
+            }
+        } catch (IOException e) {
+            // The connection is gone, the opponent wins below
+        } finally {
+            sockets.remove(socket);
+            if (player != null) {
+                leave(player);
+            }
+        }
+    }
+
+    // Pairs the player with the one waiting, or makes it the one waiting
+    private void join(Player player) {
+        if (player.room != null && !player.room.game.get().isOver()) {
+            player.send("ERROR already in a game");
+            return;
+        }
+        player.room = null;
+        while (true) {
+            Player opponent = waiting.get();
+            if (opponent == player) {
+                player.send("WAIT");
+                return;
+            }
+            if (opponent == null) {
+                if (waiting.compareAndSet(null, player)) {
+                    player.send("WAIT");
+                    return;
+                }
+            } else if (waiting.compareAndSet(opponent, null)) {
+                Room room = new Room(opponent, player);
+                opponent.room = room;
+                player.room = room;
+                games.increment();
+                String state = state(room.game.get());
+                // O first: X can move as soon as it hears of the game, and O must know of it by then
+                player.send("START O", state);
+                opponent.send("START X", state);
+                // The opponent may have left while it was being paired
+                if (opponent.closed) {
+                    leave(opponent);
+                }
+                return;
+            }
+        }
+    }
+
+    private void move(Player player, String argument) {
+        Room room = player.room;
+        if (room == null) {
+            player.send("ERROR not in a game");
+            return;
+        }
+        int cell;
+        try {
+            cell = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            player.send("ERROR bad cell");
+            return;
+        }
+        TicTacToeGame current = room.game.get();
+        if (current.getCurrentPlayer() != room.mark(player) || !current.isLegal(cell)) {
+            player.send("ERROR illegal move");
+            return;
+        }
+        TicTacToeGame next = current.play(cell);
+        // Only the player to move can change the game, so this fails only if the room was forfeited
+        if (!room.game.compareAndSet(current, next)) {
+            player.send("ERROR game over");
+            return;
+        }
+        moves.increment();
+        String state = state(next);
+        if (next.isOver()) {
+            record(next);
+            String result = "RESULT " + (next.getResult() == TicTacToeGame.DRAW ? "DRAW" : String.valueOf(next.getResult()));
+            room.x.send(state, result);
+            room.o.send(state, result);
+        } else {
+            room.x.send(state);
+            room.o.send(state);
+        }
+    }
+
+    // A player that leaves a running game loses it
+    private void leave(Player player) {
+        player.closed = true;
+        waiting.compareAndSet(player, null);
+        Room room = player.room;
+        if (room == null) {
+            return;
+        }
+        Player opponent = room.x == player ? room.o : room.x;
+        TicTacToeGame current = room.game.get();
+        while (!current.isOver()) {
+            // A shared finished state marks the forfeit, so late moves fail their compare-and-set
+            if (room.game.compareAndSet(current, FORFEITED)) {
+                recordForfeit(current, room.mark(opponent));
+                opponent.send("RESULT " + room.mark(opponent) + " forfeit");
+                // The opponent is no longer in a game and may join the next one
+                opponent.room = null;
+                return;
+            }
+            current = room.game.get();
+        }
+    }
+
+    private void record(TicTacToeGame game) {
+        if (log != null) {
+            try {
+                log.append(game);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void recordForfeit(TicTacToeGame game, char winner) {
+        if (log != null) {
+            try {
+                log.appendForfeit(game, winner);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // STATE line of the game
+    private static String state(TicTacToeGame game) {
+        StringBuilder line = new StringBuilder("STATE ");
+        for (int cell = 0; cell < TicTacToeEngine.CELLS; cell++) {
+            char stone = game.getCell(cell / 3, cell % 3);
+            line.append(stone == ' ' ? '.' : stone);
+        }
+        return line.append(' ').append(game.isOver() ? '-' : game.getCurrentPlayer()).toString();
+    }
+
+    // One connection, written to by its own thread and by its opponent's
+    private static class Player {
+        private final Socket socket;
+        private final Writer out;
+        // A lock rather than synchronized, so a virtual thread blocked writing does not pin its carrier
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private volatile Room room;
+        private volatile boolean closed;
+
+        private Player(Socket socket, Writer out) {
+            this.socket = socket;
+            this.out = out;
+        }
+
+        // Writes the lines with one flush
+        // A failed write closes the socket, the connection's own thread then sees it and cleans up
+        private void send(String... lines) {
+            writeLock.lock();
+            try {
+                for (String line : lines) {
+                    out.write(line);
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    // Two players and their game
+    private static class Room {
+        private final Player x;
+        private final Player o;
+        private final AtomicReference<TicTacToeGame> game = new AtomicReference<>(TicTacToeGame.initial());
+
+        private Room(Player x, Player o) {
+            this.x = x;
+            this.o = o;
+        }
+
+        private char mark(Player player) {
+            return player == x ? 'X' : 'O';
+        }
+    }
+
+    // java [-Dtictactoe.log=<directory>] gr.unipi.tictactoe.TicTacToeServer [port]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        String directory = System.getProperty("tictactoe.log");
+        TicTacToeRecord.Log log = directory != null ? new TicTacToeRecord.Log(Paths.get(directory), 64L << 20, Duration.ofSeconds(1)) : null;
+        TicTacToeServer server = new TicTacToeServer(port, log);
+        // Writes the records still buffered when the server is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+        server.start();
+        System.out.println("TicTacToe server listening on port " + server.getPort());
+        while (true) {
+            Thread.sleep(60_000);
+            System.out.println(server.getGames() + " games, " + server.getMoves() + " moves");
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeServerTest {
+
+    private TicTacToeServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Server on an ephemeral port, without a log
+        server = new TicTacToeServer(0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Test that two players are paired and play a game to the end")
+    public void testGame() throws IOException {
+        try (Client x = new Client(); Client o = new Client()) {
+            x.send("JOIN");
+            assertEquals("WAIT", x.read());
+            o.send("JOIN");
+            assertEquals("START O", o.read());
+            assertEquals("STATE ......... X", o.read());
+            assertEquals("START X", x.read());
+            assertEquals("STATE ......... X", x.read());
+
+            // Out of turn, taken, outside the board and not a number
+            o.send("MOVE 4");
+            assertEquals("ERROR illegal move", o.read());
+            x.send("MOVE 9");
+            assertEquals("ERROR illegal move", x.read());
+            x.send("MOVE a");
+            assertEquals("ERROR bad cell", x.read());
+
+            x.move(0, "STATE X........ O", o);
+            o.send("MOVE 0");
+            assertEquals("ERROR illegal move", o.read());
+            o.move(3, "STATE X..O..... X", x);
+            x.move(1, "STATE XX.O..... O", o);
+            o.move(4, "STATE XX.OO.... X", x);
+            x.send("MOVE 2");
+            assertEquals("STATE XXXOO.... -", x.read());
+            assertEquals("RESULT X", x.read());
+            assertEquals("STATE XXXOO.... -", o.read());
+            assertEquals("RESULT X", o.read());
+
+            x.send("STATE");
+            assertEquals("STATE XXXOO.... -", x.read());
+            o.send("MOVE 5");
+            assertEquals("ERROR illegal move", o.read());
+        }
+        assertEquals(1, server.getGames());
+        assertEquals(5, server.getMoves());
+    }
+
+    @Test
+    @DisplayName("Test that a player who leaves a running game loses it by forfeit")
+    public void testForfeit() throws IOException {
+        try (Client o = new Client()) {
+            try (Client x = new Client()) {
+                x.send("JOIN");
+                assertEquals("WAIT", x.read());
+                o.send("JOIN");
+                assertEquals("START O", o.read());
+                assertEquals("STATE ......... X", o.read());
+                assertEquals("START X", x.read());
+                assertEquals("STATE ......... X", x.read());
+                x.move(4, "STATE ....X.... O", o);
+            }
+            // X closed its connection
+            assertEquals("RESULT O forfeit", o.read());
+
+            // The winner is free to play again
+            o.send("JOIN");
+            assertEquals("WAIT", o.read());
+            o.send("MOVE 0");
+            assertEquals("ERROR not in a game", o.read());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that closing the server forfeits the running games and logs them")
+    public void testCloseRecordsGames() throws IOException {
+        Path directory = Files.createTempDirectory("tictactoe-server");
+        try {
+            server.close();
+            server = new TicTacToeServer(0, new TicTacToeRecord.Log(directory, 1 << 20, Duration.ofMinutes(1)));
+            server.start();
+            try (Client x = new Client(); Client o = new Client()) {
+                x.send("JOIN");
+                assertEquals("WAIT", x.read());
+                o.send("JOIN");
+                assertEquals("START O", o.read());
+                assertEquals("STATE ......... X", o.read());
+                assertEquals("START X", x.read());
+                assertEquals("STATE ......... X", x.read());
+                x.move(4, "STATE ....X.... O", o);
+                // The players are still connected, the game is recorded before the log is closed
+                server.close();
+            }
+
+            TicTacToeReplay.Stats stats = TicTacToeReplay.replay(directory);
+            assertEquals(1, stats.getGames());
+            assertEquals(1, stats.getResults(TicTacToeRecord.X_FORFEIT) + stats.getResults(TicTacToeRecord.O_FORFEIT));
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that commands outside a game are rejected")
+    public void testErrors() throws IOException {
+        try (Client client = new Client()) {
+            client.send("MOVE 0");
+            assertEquals("ERROR not in a game", client.read());
+            client.send("STATE");
+            assertEquals("ERROR not in a game", client.read());
+            client.send("HELLO");
+            assertEquals("ERROR unknown command", client.read());
+            // Joining twice keeps the player waiting
+            client.send("JOIN");
+            assertEquals("WAIT", client.read());
+            client.send("JOIN");
+            assertEquals("WAIT", client.read());
+            client.send("QUIT");
+            assertNull(client.read());
+        }
+    }
+
+    // One connection to the server, reads fail instead of hanging if a message never comes
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        private Client() throws IOException {
+            socket = new Socket("localhost", server.getPort());
+            socket.setSoTimeout(5000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+        }
+
+        private void send(String line) {
+            out.print(line + "\n");
+            out.flush();
+        }
+
+        private String read() throws IOException {
+            return in.readLine();
+        }
+
+        // Plays the cell and checks that both players get the state
+        private void move(int cell, String state, Client opponent) throws IOException {
+            send("MOVE " + cell);
+            assertEquals(state, read());
+            assertEquals(state, opponent.read());
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package gr.unipi.tictactoe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Headless self-play: plays many games between two strategies on a thread
+// pool, with no console and no rendering, and reports games per second,
+// win/draw rates and how many bytes the game threads allocated per game.
+// Used to validate engine changes and to catch performance regressions:
+//   java gr.unipi.tictactoe.TicTacToeSimulator [games] [X strategy] [O strategy] [threads] [size] [k]
+// Strategies: random, perfect (3 x 3 only), mcts:<playouts>
+public class TicTacToeSimulator {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    // getCurrentThreadAllocatedBytes of com.sun.management.ThreadMXBean (Java 14+), null if the JVM
+    // cannot measure allocation. Looked up by reflection, so the sources still build for Java 11
+    private static final Method CURRENT_THREAD_ALLOCATED_BYTES = currentThreadAllocatedBytes();
+
+    // Chooses the next move of the player to move, never called once the game is over.
+    // One strategy object is used by all threads, the random numbers are the caller's.
+    public interface Strategy {
+        int move(TicTacToeGrid grid, SplittableRandom random);
+    }
+
+    // A uniformly random free cell, found without allocating
+    public static Strategy random() {
+        return (grid, random) -> {
+            int skip = random.nextInt(grid.getCells() - grid.getMoveCount());
+            for (int cell = 0; ; cell++) {
+                if (grid.isLegal(cell) && skip-- == 0) {
+                    return cell;
+                }
+            }
+        };
+    }
+
+    // Perfect play from the precomputed table of the 3 x 3 game, other boards are rejected
+    public static Strategy perfect(TicTacToeTable table) {
+        return (grid, random) -> {
+            if (grid.getSize() != 3 || grid.getK() != 3) {
+                throw new IllegalArgumentException("The perfect strategy only plays 3 x 3 with 3 in a row");
+            }
+            int xMask = 0;
+            int oMask = 0;
+            for (int cell = 0; cell < TicTacToeEngine.CELLS; cell++) {
+                char stone = grid.getCell(cell / 3, cell % 3);
+                if (stone == 'X') {
+                    xMask |= 1 << cell;
+                } else if (stone == 'O') {
+                    oMask |= 1 << cell;
+                }
+            }
+            return table.bestMove(xMask, oMask);
+        };
+    }
+
+    // Monte Carlo Tree Search with a fixed number of playouts per move, on the game's own thread
+    public static Strategy mcts(long playouts) {
+        TicTacToeMcts mcts = TicTacToeMcts.singleThreaded();
+        return (grid, random) -> {
+            try {
+                return mcts.search(grid, playouts).getMove();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        };
+    }
+
+    private final int size;
+    private final int k;
+    private final Strategy x;
+    private final Strategy o;
+
+    public TicTacToeSimulator(int size, int k, Strategy x, Strategy o) {
+        this.size = size;
+        this.k = k;
+        this.x = x;
+        this.o = o;
+    }
+
+    // Plays the games split evenly between the threads
+    public Report run(long games, int threads) throws InterruptedException {
+        LongAdder xWins = new LongAdder();
+        LongAdder oWins = new LongAdder();
+        LongAdder draws = new LongAdder();
+        LongAdder allocated = new LongAdder();
+        boolean measured = CURRENT_THREAD_ALLOCATED_BYTES != null;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                long seed = ThreadLocalRandom.current().nextLong();
+                futures.add(executor.submit(() -> {
+                    long allocatedBefore = measured ? allocatedBytes() : 0;
+                    SplittableRandom random = new SplittableRandom(seed);
+                    TicTacToeGrid grid = new TicTacToeGrid(size, k);
+                    long xCount = 0;
+                    long oCount = 0;
+                    long drawCount = 0;
+                    for (long game = 0; game < share; game++) {
+                        grid.reset();
+                        while (!grid.isOver()) {
+                            Strategy player = grid.getCurrentPlayer() == 'X' ? x : o;
+                            grid.play(player.move(grid, random));
+                        }
+                        char result = grid.getResult();
+                        if (result == 'X') {
+                            xCount++;
+                        } else if (result == 'O') {
+                            oCount++;
+                        } else {
+                            drawCount++;
+                        }
+                    }
+                    xWins.add(xCount);
+                    oWins.add(oCount);
+                    draws.add(drawCount);
+                    if (measured) {
+                        allocated.add(allocatedBytes() - allocatedBefore);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(xWins.sum(), oWins.sum(), draws.sum(), System.nanoTime() - start,
+                measured ? allocated.sum() : -1);
+    }
+
+    private static Method currentThreadAllocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        try {
+            return com.sun.management.ThreadMXBean.class.getMethod("getCurrentThreadAllocatedBytes");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    // Bytes allocated so far by the calling thread
+    private static long allocatedBytes() {
+        try {
+            return (long) CURRENT_THREAD_ALLOCATED_BYTES.invoke(THREADS);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot measure allocation", e);
+        }
+    }
+
+    // Outcome of a run
+    public static class Report {
+        private final long xWins;
+        private final long oWins;
+        private final long draws;
+        private final long nanos;
+        private final long allocatedBytes;
+
+        private Report(long xWins, long oWins, long draws, long nanos, long allocatedBytes) {
+            this.xWins = xWins;
+            this.oWins = oWins;
+            this.draws = draws;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getGames() {
+            return xWins + oWins + draws;
+        }
+
+        public long getXWins() {
+            return xWins;
+        }
+
+        public long getOWins() {
+            return oWins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : getGames() * 1e9 / nanos;
+        }
+
+        // Bytes allocated by the game threads, -1 if the JVM cannot measure it
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            long games = Math.max(getGames(), 1);
+            return String.format("%d games in %d ms (%.0f games/s), X %.1f%%, O %.1f%%, draw %.1f%%, %s",
+                    getGames(), nanos / 1_000_000, getGamesPerSecond(),
+                    100.0 * xWins / games, 100.0 * oWins / games, 100.0 * draws / games,
+                    allocatedBytes < 0 ? "allocation not measured"
+                            : String.format("%.1f bytes/game, %.1f MB/s", (double) allocatedBytes / games,
+                                    nanos == 0 ? 0 : allocatedBytes * 1e3 / nanos));
+        }
+    }
+
+    private static Strategy strategy(String name, int size, int k) {
+        if (name.equals("random")) {
+            return random();
+        }
+        if (name.equals("perfect")) {
+            if (size != 3 || k != 3) {
+                throw new IllegalArgumentException("The perfect strategy only plays 3 x 3 with 3 in a row");
+            }
+            return perfect(TicTacToeTable.generate());
+        }
+        if (name.startsWith("mcts:")) {
+            return mcts(Long.parseLong(name.substring("mcts:".length())));
+        }
+        throw new IllegalArgumentException("Unknown strategy: " + name);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int size = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        int k = args.length > 5 ? Integer.parseInt(args[5]) : 3;
+        Strategy x = strategy(args.length > 1 ? args[1] : "random", size, k);
+        Strategy o = strategy(args.length > 2 ? args[2] : "random", size, k);
+
+        TicTacToeSimulator simulator = new TicTacToeSimulator(size, k, x, o);
+        // A first, shorter run warms up the JIT
+        simulator.run(Math.max(games / 10, 1), threads);
+        System.out.println(simulator.run(games, threads));
+    }
+}
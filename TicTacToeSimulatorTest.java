@@ -0,0 +1,65 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeSimulatorTest {
+
+    @Test
+    @DisplayName("Test that every game of a run ends in a win or a draw")
+    public void testRandomGames() throws InterruptedException {
+        TicTacToeSimulator simulator = new TicTacToeSimulator(3, 3, TicTacToeSimulator.random(), TicTacToeSimulator.random());
+        TicTacToeSimulator.Report report = simulator.run(1_000, 2);
+        assertEquals(1_000, report.getXWins() + report.getOWins() + report.getDraws());
+        assertEquals(1_000, report.getGames());
+        // X moves first and wins most random games
+        assertTrue(report.getXWins() > report.getOWins(), report.toString());
+        assertTrue(report.getOWins() > 0, report.toString());
+        assertTrue(report.getGamesPerSecond() > 0);
+        assertTrue(report.getAllocatedBytes() >= -1);
+
+        // Larger boards, and more threads than games
+        simulator = new TicTacToeSimulator(7, 4, TicTacToeSimulator.random(), TicTacToeSimulator.random());
+        assertEquals(3, simulator.run(3, 4).getGames());
+    }
+
+    @Test
+    @DisplayName("Test that perfect play on both sides always draws")
+    public void testPerfectDraws() throws InterruptedException {
+        TicTacToeSimulator.Strategy perfect = TicTacToeSimulator.perfect(TicTacToeTable.generate());
+        TicTacToeSimulator.Report report = new TicTacToeSimulator(3, 3, perfect, perfect).run(1_000, 2);
+        assertEquals(1_000, report.getDraws());
+
+        // Perfect play never loses to random play
+        report = new TicTacToeSimulator(3, 3, TicTacToeSimulator.random(), perfect).run(1_000, 2);
+        assertEquals(0, report.getXWins());
+    }
+
+    @Test
+    @DisplayName("Test that the perfect strategy rejects boards other than 3 x 3 with 3 in a row")
+    public void testPerfectRejectsOtherBoards() {
+        TicTacToeSimulator.Strategy perfect = TicTacToeSimulator.perfect(TicTacToeTable.generate());
+        SplittableRandom random = new SplittableRandom(1);
+        assertThrows(IllegalArgumentException.class, () -> perfect.move(new TicTacToeGrid(4, 3), random));
+        assertThrows(IllegalArgumentException.class, () -> perfect.move(new TicTacToeGrid(3, 2), random));
+        TicTacToeGrid grid = new TicTacToeGrid(3, 3);
+        assertTrue(grid.isLegal(perfect.move(grid, random)));
+
+        TicTacToeSimulator simulator = new TicTacToeSimulator(4, 3, perfect, TicTacToeSimulator.random());
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> simulator.run(10, 2));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    @DisplayName("Test that the MCTS strategy plays whole games on the game threads")
+    public void testMcts() throws InterruptedException {
+        TicTacToeSimulator simulator = new TicTacToeSimulator(3, 3, TicTacToeSimulator.mcts(2_000), TicTacToeSimulator.random());
+        TicTacToeSimulator.Report report = simulator.run(20, 2);
+        assertEquals(20, report.getGames());
+        assertTrue(report.getXWins() > report.getOWins(), report.toString());
+    }
+}
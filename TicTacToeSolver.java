@@ -0,0 +1,196 @@
+package gr.unipi.tictactoe;
+
+// Perfect-play TicTacToe opponent: negamax with alpha-beta pruning and a
+// transposition table. Positions that are rotations or reflections of each
+// other share one table entry, keyed by the smallest base-3 encoding of the
+// board under the 8 symmetries, so at most 765 distinct positions are ever
+// searched. Once a position has been seen, bestMove is a table lookup.
+// One solver can be shared by all games and threads.
+public class TicTacToeSolver {
+    // Number of base-3 encodings of a board (3^9)
+    static final int POSITIONS = 19683;
+
+    // SYMMETRIES[s][cell] is where the cell goes under symmetry s:
+    // identity, the three rotations and the four reflections
+    static final int[][] SYMMETRIES = new int[8][TicTacToeEngine.CELLS];
+    // INVERSE[s][cell] is the cell that symmetry s moves to the given cell
+    static final int[][] INVERSE = new int[8][TicTacToeEngine.CELLS];
+    // POW3[i] = 3^i
+    private static final int[] POW3 = new int[TicTacToeEngine.CELLS];
+
+    // Kinds of table entries
+    private static final int EXACT = 1;
+    private static final int LOWER = 2;
+    private static final int UPPER = 3;
+
+    static {
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                int cell = TicTacToeEngine.cell(row, col);
+                int[] images = {
+                    cell,
+                    TicTacToeEngine.cell(col, 2 - row),
+                    TicTacToeEngine.cell(2 - row, 2 - col),
+                    TicTacToeEngine.cell(2 - col, row),
+                    TicTacToeEngine.cell(row, 2 - col),
+                    TicTacToeEngine.cell(2 - row, col),
+                    TicTacToeEngine.cell(col, row),
+                    TicTacToeEngine.cell(2 - col, 2 - row)
+                };
+                for (int s = 0; s < 8; s++) {
+                    SYMMETRIES[s][cell] = images[s];
+                    INVERSE[s][images[s]] = cell;
+                }
+            }
+        }
+        POW3[0] = 1;
+        for (int i = 1; i < POW3.length; i++) {
+            POW3[i] = POW3[i - 1] * 3;
+        }
+    }
+
+    // Entry per canonical key: 0 if empty, otherwise the best move in canonical
+    // coordinates + 1 (bits 16-19), the kind (bits 8-9) and the value + 128 (bits 0-7).
+    // An int is written at once, so threads sharing the table never see half an entry.
+    private final int[] table = new int[POSITIONS];
+
+    // Best cell (0-8) for the player to move, -1 if the game is over
+    public int bestMove(TicTacToeGame game) {
+        if (game.isOver()) {
+            return -1;
+        }
+        int xMask = game.getXMask();
+        int oMask = game.getOMask();
+        long canonical = canonical(xMask, oMask);
+        int key = (int) (canonical >>> 3);
+        int symmetry = (int) canonical & 7;
+        int entry = table[key];
+        if (kind(entry) == EXACT) {
+            return INVERSE[symmetry][(entry >>> 16) - 1];
+        }
+        return searchRoot(xMask, oMask, key, symmetry);
+    }
+
+    // Outcome for the player to move with perfect play from both sides:
+    // positive for a win, 0 for a draw and negative for a loss.
+    // The sooner the win (or the later the loss), the larger the value.
+    public int evaluate(TicTacToeGame game) {
+        int key = (int) (canonical(game.getXMask(), game.getOMask()) >>> 3);
+        int entry = table[key];
+        if (kind(entry) == EXACT) {
+            return value(entry);
+        }
+        return search(game.getXMask(), game.getOMask(), -128, 127);
+    }
+
+    // Smallest base-3 encoding of the board under the 8 symmetries (empty 0, X 1, O 2),
+    // shifted left by 3 with the index of the symmetry that produced it in the low bits
+    static long canonical(int xMask, int oMask) {
+        int best = Integer.MAX_VALUE;
+        int bestSymmetry = 0;
+        for (int s = 0; s < 8; s++) {
+            int[] symmetry = SYMMETRIES[s];
+            int key = 0;
+            for (int taken = xMask | oMask; taken != 0; taken &= taken - 1) {
+                int cell = Integer.numberOfTrailingZeros(taken);
+                key += ((xMask >>> cell & 1) != 0 ? 1 : 2) * POW3[symmetry[cell]];
+            }
+            if (key < best) {
+                best = key;
+                bestSymmetry = s;
+            }
+        }
+        return (long) best << 3 | bestSymmetry;
+    }
+
+    // Best move of a position that is not over. It is taken from this search, not read back from
+    // the table: another thread may overwrite the entry with a bound, whose move can be a losing one
+    private int searchRoot(int xMask, int oMask, int key, int symmetry) {
+        boolean xToMove = (Integer.bitCount(xMask | oMask) & 1) == 0;
+        int free = ~(xMask | oMask) & TicTacToeEngine.FULL;
+        int alpha = -128;
+        int bestMove = -1;
+        for (int cell = 0; cell < TicTacToeEngine.CELLS; cell++) {
+            if ((free & (1 << cell)) == 0) {
+                continue;
+            }
+            int value = xToMove
+                    ? -search(xMask | 1 << cell, oMask, -127, -alpha)
+                    : -search(xMask, oMask | 1 << cell, -127, -alpha);
+            if (value > alpha) {
+                alpha = value;
+                bestMove = cell;
+            }
+        }
+        table[key] = (SYMMETRIES[symmetry][bestMove] + 1) << 16 | EXACT << 8 | (alpha + 128);
+        return bestMove;
+    }
+
+    // Negamax value of the position for the player to move
+    private int search(int xMask, int oMask, int alpha, int beta) {
+        int moves = Integer.bitCount(xMask | oMask);
+        boolean xToMove = (moves & 1) == 0;
+        int mine = xToMove ? xMask : oMask;
+        int theirs = xToMove ? oMask : xMask;
+        // The previous move may have won, and the earlier the win the worse for us
+        if (TicTacToeEngine.isWin(theirs)) {
+            return -(TicTacToeEngine.CELLS + 1 - moves);
+        }
+        if (moves == TicTacToeEngine.CELLS) {
+            return 0;
+        }
+
+        long canonical = canonical(xMask, oMask);
+        int key = (int) (canonical >>> 3);
+        int symmetry = (int) canonical & 7;
+        int entry = table[key];
+        int firstMove = -1;
+        if (entry != 0) {
+            int value = value(entry);
+            int kind = kind(entry);
+            if (kind == EXACT
+                    || (kind == LOWER && value >= beta)
+                    || (kind == UPPER && value <= alpha)) {
+                return value;
+            }
+            firstMove = INVERSE[symmetry][(entry >>> 16) - 1];
+        }
+
+        int originalAlpha = alpha;
+        int best = -128;
+        int bestMove = -1;
+        int free = ~(xMask | oMask) & TicTacToeEngine.FULL;
+        // The move remembered in the table first, it is usually the one that cuts off
+        for (int i = firstMove < 0 ? 0 : -1; i < TicTacToeEngine.CELLS; i++) {
+            int cell = i < 0 ? firstMove : i;
+            if ((free & (1 << cell)) == 0 || (i >= 0 && cell == firstMove)) {
+                continue;
+            }
+            int value = xToMove
+                    ? -search(xMask | 1 << cell, oMask, -beta, -alpha)
+                    : -search(xMask, oMask | 1 << cell, -beta, -alpha);
+            if (value > best) {
+                best = value;
+                bestMove = cell;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int kind = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        table[key] = (SYMMETRIES[symmetry][bestMove] + 1) << 16 | kind << 8 | (best + 128);
+        return best;
+    }
+
+    private static int value(int entry) {
+        return (entry & 0xFF) - 128;
+    }
+
+    private static int kind(int entry) {
+        return entry >>> 8 & 0xFF;
+    }
+}
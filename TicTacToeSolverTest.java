@@ -0,0 +1,158 @@
+package gr.unipi.tictactoe;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TicTacToeSolverTest {
+
+    // Every position reachable from the empty board, finished ones included, each reached by one move order
+    private static final List<TicTacToeGame> POSITIONS = new ArrayList<>();
+    // Plain minimax value of every position for the player to move, by the two bitboards
+    // (TicTacToeGame.equals compares the move order as well)
+    private static final Map<Integer, Integer> MINIMAX = new HashMap<>();
+
+    static {
+        minimax(TicTacToeGame.initial());
+    }
+
+    // Minimax without pruning, tables or symmetries, scored like TicTacToeSolver.evaluate:
+    // a win is worth more the sooner it comes, a draw is 0
+    private static int minimax(TicTacToeGame game) {
+        Integer known = MINIMAX.get(key(game));
+        if (known != null) {
+            return known;
+        }
+        int value;
+        if (game.getResult() == TicTacToeGame.DRAW) {
+            value = 0;
+        } else if (game.isOver()) {
+            // The previous move won
+            value = -(TicTacToeEngine.CELLS + 1 - game.getMoveCount());
+        } else {
+            value = Integer.MIN_VALUE;
+            for (int cell = 0; cell < TicTacToeEngine.CELLS; cell++) {
+                if (game.isLegal(cell)) {
+                    value = Math.max(value, -minimax(game.play(cell)));
+                }
+            }
+        }
+        MINIMAX.put(key(game), value);
+        POSITIONS.add(game);
+        return value;
+    }
+
+    private static int key(TicTacToeGame game) {
+        return game.getXMask() << TicTacToeEngine.CELLS | game.getOMask();
+    }
+
+    private static int minimaxOf(TicTacToeGame game) {
+        return MINIMAX.get(key(game));
+    }
+
+    @Test
+    @DisplayName("Test that the solver agrees with plain minimax on every reachable position")
+    public void testSolverMatchesMinimax() {
+        assertEquals(5478, POSITIONS.size());
+        TicTacToeSolver solver = new TicTacToeSolver();
+        for (TicTacToeGame game : POSITIONS) {
+            int expected = minimaxOf(game);
+            assertEquals(expected, solver.evaluate(game), game::toString);
+            int move = solver.bestMove(game);
+            if (game.isOver()) {
+                assertEquals(-1, move);
+            } else {
+                assertTrue(game.isLegal(move), game::toString);
+                assertEquals(expected, -minimaxOf(game.play(move)), () -> game + " move " + move);
+            }
+        }
+        // Perfect play from the empty board is a draw
+        assertEquals(0, solver.evaluate(TicTacToeGame.initial()));
+    }
+
+    @Test
+    @DisplayName("Test that the solver gives the same answers in any order of positions")
+    public void testSolverOrderIndependent() {
+        // A fresh solver asked from the end of the game first fills its table differently
+        TicTacToeSolver solver = new TicTacToeSolver();
+        for (int i = POSITIONS.size() - 1; i >= 0; i--) {
+            TicTacToeGame game = POSITIONS.get(i);
+            assertEquals(minimaxOf(game), solver.evaluate(game), game::toString);
+            if (!game.isOver()) {
+                assertEquals(minimaxOf(game), -minimaxOf(game.play(solver.bestMove(game))), game::toString);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that one solver shared by many threads keeps giving perfect moves")
+    public void testSolverShared() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            TicTacToeSolver solver = new TicTacToeSolver();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    // Every thread asks for the positions in its own order, so they fill the table together
+                    List<TicTacToeGame> order = new ArrayList<>(POSITIONS);
+                    Collections.shuffle(order, new Random(round * 4 + t));
+                    futures.add(executor.submit(() -> {
+                        for (TicTacToeGame game : order) {
+                            if (game.isOver()) {
+                                continue;
+                            }
+                            int move = solver.bestMove(game);
+                            assertEquals(-solver.evaluate(game.play(move)), solver.evaluate(game), game::toString);
+                            assertEquals(minimaxOf(game), -minimaxOf(game.play(move)), game::toString);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test that the precomputed table matches minimax and survives a save and load")
+    public void testTableMatchesMinimax() throws Exception {
+        TicTacToeTable table = TicTacToeTable.generate();
+        assertEquals(POSITIONS.size(), table.size());
+        Path file = Files.createTempFile("tictactoe", ".table");
+        try {
+            table.save(file);
+            TicTacToeTable loaded = TicTacToeTable.load(file);
+            for (TicTacToeTable t : new TicTacToeTable[] {table, loaded}) {
+                for (TicTacToeGame game : POSITIONS) {
+                    int expected = minimaxOf(game);
+                    int outcome = expected > 0 ? TicTacToeTable.WIN : expected == 0 ? TicTacToeTable.DRAW : TicTacToeTable.LOSS;
+                    assertEquals(outcome, t.outcome(game), game::toString);
+                    int move = t.bestMove(game);
+                    if (game.isOver()) {
+                        assertEquals(-1, move);
+                    } else {
+                        assertEquals(expected, -minimaxOf(game.play(move)), game::toString);
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package gr.unipi.tictactoe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Best move and outcome of every position reachable from the empty board,
+// generated once with TicTacToeSolver. The AI answers with one array lookup
+// and no search. Entries are indexed by the base-3 encoding of the board
+// (cell i counts 3^i, empty 0, X 1, O 2), one byte each, 19683 bytes in all,
+// and the table can be written to a file that loads with a single read.
+// The table is never changed after it is built, so any number of games can share it.
+public class TicTacToeTable {
+    // Outcomes for the player to move, 0 marks a position that cannot be reached
+    public static final int WIN = 1;
+    public static final int DRAW = 2;
+    public static final int LOSS = 3;
+
+    // Move nibble of a position where the game is over
+    private static final int NO_MOVE = 0xF;
+
+    // File header, "TTT3"
+    private static final int MAGIC = 0x54545433;
+    private static final int HEADER_SIZE = 4;
+
+    // Base-3 index of each 9-bit mask with digit 1 for every set bit
+    private static final int[] MASK_INDEX = new int[TicTacToeEngine.FULL + 1];
+
+    static {
+        for (int mask = 1; mask <= TicTacToeEngine.FULL; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            int pow3 = 1;
+            for (int i = 0; i < lowest; i++) {
+                pow3 *= 3;
+            }
+            MASK_INDEX[mask] = MASK_INDEX[mask & (mask - 1)] + pow3;
+        }
+    }
+
+    // Outcome (bits 4-5) and best move (bits 0-3) of each position
+    private final byte[] entries;
+
+    private TicTacToeTable(byte[] entries) {
+        this.entries = entries;
+    }
+
+    // Walk every position reachable from the empty board and solve it
+    public static TicTacToeTable generate() {
+        byte[] entries = new byte[TicTacToeSolver.POSITIONS];
+        fill(entries, new TicTacToeSolver(), TicTacToeGame.initial());
+        return new TicTacToeTable(entries);
+    }
+
+    private static void fill(byte[] entries, TicTacToeSolver solver, TicTacToeGame game) {
+        int index = index(game.getXMask(), game.getOMask());
+        if (entries[index] != 0) {
+            return;
+        }
+        if (game.isOver()) {
+            entries[index] = (byte) ((game.getResult() == TicTacToeGame.DRAW ? DRAW : LOSS) << 4 | NO_MOVE);
+            return;
+        }
+        int value = solver.evaluate(game);
+        int outcome = value > 0 ? WIN : value == 0 ? DRAW : LOSS;
+        entries[index] = (byte) (outcome << 4 | solver.bestMove(game));
+        for (int free = game.getLegalMoves(); free != 0; free &= free - 1) {
+            fill(entries, solver, game.play(Integer.numberOfTrailingZeros(free)));
+        }
+    }
+
+    // The table in the file, generated and written there first if the file does not exist
+    public static TicTacToeTable loadOrGenerate(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return load(file);
+        }
+        TicTacToeTable table = generate();
+        table.save(file);
+        return table;
+    }
+
+    public static TicTacToeTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_SIZE + TicTacToeSolver.POSITIONS) {
+                throw new IOException("Not a TicTacToe table: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + TicTacToeSolver.POSITIONS);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("TicTacToe table is truncated: " + file);
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a TicTacToe table: " + file);
+            }
+            byte[] entries = new byte[TicTacToeSolver.POSITIONS];
+            buffer.get(entries);
+            return new TicTacToeTable(entries);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entries.length);
+        buffer.putInt(MAGIC).put(entries).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Best cell (0-8) for the player to move, -1 if the game is over
+    public int bestMove(TicTacToeGame game) {
+        return bestMove(game.getXMask(), game.getOMask());
+    }
+
+    // Same for a board given as the two bitboards, see TicTacToeEngine
+    public int bestMove(int xMask, int oMask) {
+        int move = entries[index(xMask, oMask)] & 0xF;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    // WIN, DRAW or LOSS for the player to move with perfect play, 0 if the position cannot be reached
+    public int outcome(TicTacToeGame game) {
+        return entries[index(game.getXMask(), game.getOMask())] >> 4 & 0x3;
+    }
+
+    // Number of reachable positions, including the finished ones
+    public int size() {
+        int size = 0;
+        for (byte entry : entries) {
+            if (entry != 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    // Base-3 encoding of the board
+    static int index(int xMask, int oMask) {
+        return MASK_INDEX[xMask] + 2 * MASK_INDEX[oMask];
+    }
+
+    // Build-time generator: java gr.unipi.tictactoe.TicTacToeTable <file>
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "tictactoe.table");
+        TicTacToeTable table = generate();
+        table.save(file);
+        System.out.println(table.size() + " positions written to " + file);
+    }
+}
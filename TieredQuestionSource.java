@@ -0,0 +1,229 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import gr.unipi.opentriviaapi.Client.DataQuestion;
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//chain of question sources, asked in order until one of them has the questions
+//e.g. memory, then disk, then network
+//when a lower tier answers, the tiers above it are offered the questions, so the next
+//query is answered higher up; a lower tier is asked for as many questions as the tiers
+//above it would like to keep (see QuestionSource.batchSize) and the caller gets a sample of them
+//a tier that fails is skipped, unless it is the last one
+//latency and outcome of every tier are recorded in its Stats
+public class TieredQuestionSource implements QuestionSource {
+
+	private final List<Tier> tiers;
+
+	private TieredQuestionSource(List<Tier> tiers) {
+		this.tiers = tiers;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public DataResponse fetch(QuestionQuery query) throws IOException, InterruptedException {
+		try {
+			return fetchAsync(query).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	@Override
+	public CompletableFuture<DataResponse> fetchAsync(QuestionQuery query) {
+		return fetchFrom(0, query, null);
+	}
+
+	//the first tier wants the largest batch the chain would like to keep
+	@Override
+	public int batchSize(QuestionQuery query) {
+		return tiers.isEmpty() ? query.getAmount() : tiers.get(0).source.batchSize(query);
+	}
+
+	@Override
+	public void offer(QuestionQuery query, DataQuestion[] questions) {
+		for (Tier tier : tiers) {
+			tier.source.offer(query, questions);
+		}
+	}
+
+	//statistics of every tier, in order
+	public List<Stats> getStats() {
+		List<Stats> stats = new ArrayList<>();
+		for (Tier tier : tiers) {
+			stats.add(tier.stats);
+		}
+		return Collections.unmodifiableList(stats);
+	}
+
+	//asks tier i and falls through to the next one on a miss
+	//last is the answer of the previous tier, returned if no tier has the questions
+	private CompletableFuture<DataResponse> fetchFrom(int i, QuestionQuery query, DataResponse last) {
+		if (i == tiers.size()) {
+			if (last != null) {
+				return CompletableFuture.completedFuture(last);
+			}
+			return CompletableFuture.completedFuture(new DataResponse(Client.RESPONSE_NO_RESULTS, new DataQuestion[0]));
+		}
+		Tier tier = tiers.get(i);
+		boolean lastTier = i == tiers.size() - 1;
+
+		//ask for the largest batch any tier above would like to keep, at least the requested amount
+		QuestionQuery batchQuery = query;
+		for (int j = 0; j < i; j++) {
+			batchQuery = batchQuery.withAmount(Math.max(batchQuery.getAmount(), tiers.get(j).source.batchSize(query)));
+		}
+		boolean largerBatch = batchQuery.getAmount() > query.getAmount();
+
+		return tier.fetchAsync(batchQuery).thenCompose(response -> {
+			//a tier that cannot fill the batch may still have the requested amount
+			if (!isHit(response) && largerBatch) {
+				return tier.fetchAsync(query);
+			}
+			return CompletableFuture.completedFuture(response);
+		}).handle((response, error) -> {
+			if (error != null) {
+				tier.stats.errors.increment();
+				if (lastTier) {
+					return CompletableFuture.<DataResponse>failedFuture(
+							error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+				}
+				return fetchFrom(i + 1, query, last);
+			}
+			if (!isHit(response)) {
+				tier.stats.misses.increment();
+				return fetchFrom(i + 1, query, response != null ? response : last);
+			}
+			tier.stats.hits.increment();
+
+			DataQuestion[] questions = response.getResults();
+			for (int j = 0; j < i; j++) {
+				tiers.get(j).source.offer(query, questions);
+			}
+			if (questions.length > query.getAmount()) {
+				questions = QuestionCache.sample(questions, query.getAmount());
+			}
+			return CompletableFuture.completedFuture(new DataResponse(Client.RESPONSE_SUCCESS, questions));
+		}).thenCompose(next -> next);
+	}
+
+	private static boolean isHit(DataResponse response) {
+		return response != null && response.getResponseCode() == Client.RESPONSE_SUCCESS && response.getResults() != null;
+	}
+
+	//a source of the chain and its statistics
+	private static class Tier {
+		private final QuestionSource source;
+		private final Stats stats;
+
+		private Tier(String name, QuestionSource source) {
+			this.source = source;
+			this.stats = new Stats(name);
+		}
+
+		//asks the source and records how long it took
+		private CompletableFuture<DataResponse> fetchAsync(QuestionQuery query) {
+			long start = System.nanoTime();
+			CompletableFuture<DataResponse> future;
+			try {
+				future = source.fetchAsync(query);
+			} catch (RuntimeException e) {
+				future = CompletableFuture.failedFuture(e);
+			}
+			return future.whenComplete((response, error) -> stats.record(System.nanoTime() - start));
+		}
+	}
+
+	//counters of one tier, updated without locks
+	public static class Stats {
+		private final String name;
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+		private Stats(String name) {
+			this.name = name;
+		}
+
+		private void record(long nanos) {
+			requests.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		//number of times the source was asked, a retry with a smaller batch counts again
+		public long getRequests() {
+			return requests.sum();
+		}
+
+		public long getHits() {
+			return hits.sum();
+		}
+
+		public long getMisses() {
+			return misses.sum();
+		}
+
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		public long getAverageNanos() {
+			long count = requests.sum();
+			return count == 0 ? 0 : totalNanos.sum() / count;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos.get();
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + getRequests() + " requests, " + getHits() + " hits, " + getMisses() + " misses, "
+					+ getErrors() + " errors, avg " + getAverageNanos() / 1000 + " us, max " + getMaxNanos() / 1000 + " us";
+		}
+	}
+
+	//collects the tiers in the order they are asked
+	public static class Builder {
+
+		private final List<Tier> tiers = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		public Builder tier(String name, QuestionSource source) {
+			tiers.add(new Tier(name, source));
+			return this;
+		}
+
+		public TieredQuestionSource build() {
+			return new TieredQuestionSource(new ArrayList<>(tiers));
+		}
+	}
+}
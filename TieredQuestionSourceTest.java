@@ -0,0 +1,90 @@
+package gr.unipi.opentriviaapi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TieredQuestionSourceTest {
+
+    /**
+     * Test that a miss in memory is answered by the next tier and the next query is answered from memory.
+     */
+    @Test
+    public void testLowerTierFillsMemoryTier() throws Exception {
+        TieredQuestionSource source = TieredQuestionSource.builder()
+                .tier("memory", new QuestionCache(8, Duration.ofMinutes(5), 20))
+                .tier("stub", new StubQuestionSource())
+                .build();
+        QuestionQuery query = new QuestionQuery(5, 9, "easy", "multiple");
+
+        Client.DataResponse first = source.fetch(query);
+        Client.DataResponse second = source.fetch(query);
+
+        assertEquals(Client.RESPONSE_SUCCESS, first.getResponseCode());
+        assertEquals(5, first.getResults().length);
+        assertEquals(5, second.getResults().length);
+
+        List<TieredQuestionSource.Stats> stats = source.getStats();
+        assertEquals("memory", stats.get(0).getName());
+        assertEquals(1, stats.get(0).getHits());
+        assertEquals(1, stats.get(0).getMisses());
+        assertEquals(1, stats.get(1).getHits());
+        assertEquals(1, stats.get(1).getRequests());
+    }
+
+    /**
+     * Test that a tier that cannot fill the batch is asked again for the requested amount only.
+     */
+    @Test
+    public void testSmallTierAnswersRequestedAmount() throws Exception {
+        TieredQuestionSource source = TieredQuestionSource.builder()
+                .tier("memory", new QuestionCache(8, Duration.ofMinutes(5), 50))
+                .tier("stub", new StubQuestionSource(10))
+                .build();
+
+        Client.DataResponse response = source.fetch(new QuestionQuery(10, 0, "", ""));
+
+        assertEquals(Client.RESPONSE_SUCCESS, response.getResponseCode());
+        assertEquals(10, response.getResults().length);
+        assertEquals(2, source.getStats().get(1).getRequests());
+    }
+
+    /**
+     * Test that a failing tier is skipped and the error is counted.
+     */
+    @Test
+    public void testFailingTierIsSkipped() throws Exception {
+        QuestionSource failing = query -> {
+            throw new IOException("disk unavailable");
+        };
+        TieredQuestionSource source = TieredQuestionSource.builder()
+                .tier("disk", failing)
+                .tier("stub", new StubQuestionSource())
+                .build();
+
+        Client.DataResponse response = source.fetch(new QuestionQuery(3, 0, "", ""));
+
+        assertEquals(3, response.getResults().length);
+        assertEquals(1, source.getStats().get(0).getErrors());
+    }
+
+    /**
+     * Test that the error of the last tier is reported to the caller.
+     */
+    @Test
+    public void testLastTierErrorIsReported() {
+        QuestionSource failing = query -> {
+            throw new RateLimitException("too many requests");
+        };
+        TieredQuestionSource source = TieredQuestionSource.builder()
+                .tier("memory", new QuestionCache(8, Duration.ofMinutes(5), 20))
+                .tier("network", failing)
+                .build();
+
+        assertThrows(RateLimitException.class, () -> source.fetch(new QuestionQuery(3, 0, "", "")));
+    }
+}
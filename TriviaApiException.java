@@ -0,0 +1,13 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+
+//base class of the errors reported by the api, as opposed to network failures
+public class TriviaApiException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TriviaApiException(String message) {
+		super(message);
+	}
+}
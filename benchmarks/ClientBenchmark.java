@@ -0,0 +1,116 @@
+package gr.unipi.opentriviaapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+
+import gr.unipi.opentriviaapi.Client.DataResponse;
+
+//fetching and parsing questions, at several batch sizes
+//fetchData asks a local HttpServer that answers with a canned api response, so the numbers are the
+//cost of the client (request, retry and rate limit bookkeeping, json parsing and html decoding)
+//and of the loopback connection, never of the network
+//the stub server disables Nagle's algorithm, otherwise every response waits ~40 ms for a delayed ack
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ClientBenchmark {
+
+	//questions per response, the api answers 1 to 50
+	@Param({"1", "10", "50"})
+	public int amount;
+
+	private HttpServer server;
+	private Client client;
+	private Gson gson;
+	private String json;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		json = response(amount);
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		});
+		server.start();
+
+		//no rate limit and no retries, a failure should end the run and not be timed
+		client = Client.builder()
+				.baseUri("http://localhost:" + server.getAddress().getPort() + "/api.php")
+				.amount(amount)
+				.rateLimiter(RateLimiter.unlimited())
+				.retryPolicy(RetryPolicy.none())
+				.build();
+		gson = Client.gsonBuilder().create();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	//a whole request: http round trip, parsing and decoding
+	@Benchmark
+	public DataResponse fetchData() throws IOException, InterruptedException {
+		return client.fetchData();
+	}
+
+	//parsing and decoding only, as the client does it
+	@Benchmark
+	public DataResponse deserialize() {
+		return gson.fromJson(json, DataResponse.class);
+	}
+
+	//api response with the amount of questions, their text full of html entities like the real ones
+	static String response(int amount) {
+		StringBuilder json = new StringBuilder("{\"response_code\":0,\"results\":[");
+		for (int i = 0; i < amount; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			boolean multiple = i % 2 == 0;
+			json.append("{\"type\":\"").append(multiple ? "multiple" : "boolean").append('"')
+					.append(",\"difficulty\":\"medium\"")
+					.append(",\"category\":\"Entertainment: Video Games\"")
+					.append(",\"question\":\"In &quot;Pok&eacute;mon Red&quot;, which of these is question number ")
+					.append(i).append(" &amp; the one you&#039;re looking for?\"")
+					.append(",\"correct_answer\":\"").append(multiple ? "Pikachu &amp; Eevee" : "True").append('"')
+					.append(",\"incorrect_answers\":[");
+			if (multiple) {
+				json.append("\"Charmander\",\"Bulbasaur &lt;3\",\"Squirtle&hellip;\"");
+			} else {
+				json.append("\"False\"");
+			}
+			json.append("]}");
+		}
+		return json.append("]}").toString();
+	}
+}
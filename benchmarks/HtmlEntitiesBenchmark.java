@@ -0,0 +1,45 @@
+package gr.unipi.opentriviaapi;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//decoding of the html references the api puts in questions and answers
+//Client decodes the category, question and answers of every question it returns with it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlEntitiesBenchmark {
+
+	//fields and not constants, so the jit cannot fold the calls away
+	public String plain = "Which planet is known as the Red Planet?";
+	public String named = "In &quot;Pok&eacute;mon Red&quot;, what&#039;s the type of &lsquo;Pikachu&rsquo; &amp; &lt;Raichu&gt;?";
+	public String numeric = "&#8220;Caf&#233;&#8221; &#x2014; &#x1F600; &#8230; &#39;quoted&#39;";
+
+	//the common case of no references at all, the text is returned as is
+	@Benchmark
+	public String decodePlain() {
+		return HtmlEntities.decode(plain);
+	}
+
+	@Benchmark
+	public String decodeNamed() {
+		return HtmlEntities.decode(named);
+	}
+
+	@Benchmark
+	public String decodeNumeric() {
+		return HtmlEntities.decode(numeric);
+	}
+}
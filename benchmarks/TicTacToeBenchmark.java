@@ -0,0 +1,148 @@
+package gr.unipi.tictactoe;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The code the games run: win checks on the bitboards, TicTacToeGame states as the console
+// game and the server keep them, and whole games on the grid of the simulator.
+// The checks run over a fixed set of positions taken from random games, so the branches
+// are as unpredictable as in real play and the JIT cannot specialize on a single board.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicTacToeBenchmark {
+    // Positions checked per invocation of the check benchmarks
+    private static final int POSITIONS = 64;
+
+    private final TicTacToeGame[] positions = new TicTacToeGame[POSITIONS];
+    private final int[] masks = new int[POSITIONS];
+    private final TicTacToeGrid grid = new TicTacToeGrid(3, 3);
+    private TicTacToeTable table;
+    private TicTacToeSimulator.Strategy random;
+    private TicTacToeSimulator.Strategy perfect;
+    private SplittableRandom rng;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rng = new SplittableRandom(42);
+        // Every position is a random game stopped after a random number of moves
+        for (int i = 0; i < POSITIONS; i++) {
+            TicTacToeGame game = TicTacToeGame.initial();
+            for (int moves = rng.nextInt(TicTacToeEngine.CELLS + 1); moves > 0 && !game.isOver(); moves--) {
+                game = game.play(randomMove(game, rng));
+            }
+            positions[i] = game;
+            masks[i] = i % 2 == 0 ? game.getXMask() : game.getOMask();
+        }
+        table = TicTacToeTable.generate();
+        random = TicTacToeSimulator.random();
+        perfect = TicTacToeSimulator.perfect(table);
+    }
+
+    // The win check of every move: one AND per line of the player's mask
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int isWin() {
+        int wins = 0;
+        for (int mask : masks) {
+            if (TicTacToeEngine.isWin(mask)) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    // The board-full check that replaced isBoardFull: one OR and one compare of the two masks
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int isFull() {
+        int full = 0;
+        for (TicTacToeGame game : positions) {
+            if ((game.getXMask() | game.getOMask()) == TicTacToeEngine.FULL) {
+                full++;
+            }
+        }
+        return full;
+    }
+
+    // Whether a state is won or drawn, what the game loops ask after every move
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int isOver() {
+        int over = 0;
+        for (TicTacToeGame game : positions) {
+            if (game.isOver()) {
+                over++;
+            }
+        }
+        return over;
+    }
+
+    // The computer's move of the console game and of the simulator's perfect player, one table lookup
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int tableMove() {
+        int moves = 0;
+        for (TicTacToeGame game : positions) {
+            if (!game.isOver()) {
+                moves += table.bestMove(game);
+            }
+        }
+        return moves;
+    }
+
+    // A random game of immutable states, a new TicTacToeGame per move as in the console game and the server
+    @Benchmark
+    public char gameStates() {
+        TicTacToeGame game = TicTacToeGame.initial();
+        while (!game.isOver()) {
+            game = game.play(randomMove(game, rng));
+        }
+        return game.getResult();
+    }
+
+    // A random game on the grid of the simulator, as TicTacToeSimulator plays it
+    @Benchmark
+    public char randomGame() {
+        return play(random, random);
+    }
+
+    // A game of perfect play from the precomputed table, always a draw
+    @Benchmark
+    public char perfectGame() {
+        return play(perfect, perfect);
+    }
+
+    private char play(TicTacToeSimulator.Strategy x, TicTacToeSimulator.Strategy o) {
+        grid.reset();
+        while (!grid.isOver()) {
+            grid.play((grid.getCurrentPlayer() == 'X' ? x : o).move(grid, rng));
+        }
+        return grid.getResult();
+    }
+
+    // A uniformly random legal move of the state
+    private static int randomMove(TicTacToeGame game, SplittableRandom rng) {
+        int legal = game.getLegalMoves();
+        for (int skip = rng.nextInt(Integer.bitCount(legal)); skip > 0; skip--) {
+            legal &= legal - 1;
+        }
+        return Integer.numberOfTrailingZeros(legal);
+    }
+}